@@ -27,13 +27,19 @@ import org.wso2.carbon.connector.exception.InvalidConfigurationException;
 import org.wso2.carbon.connector.pojo.ConnectionConfiguration;
 import org.wso2.carbon.connector.utils.EmailConstants;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 import javax.mail.MessagingException;
 import javax.mail.NoSuchProviderException;
-import javax.mail.PasswordAuthentication;
+import javax.mail.Service;
 import javax.mail.Session;
 import javax.mail.Store;
+import javax.mail.event.ConnectionAdapter;
+import javax.mail.event.ConnectionEvent;
+import javax.mail.event.ConnectionListener;
 
 import static java.lang.String.format;
 
@@ -48,8 +54,45 @@ public class EmailConnection implements Connection {
 
     private static final Log log = LogFactory.getLog(EmailConnection.class);
 
+    private static final int MAX_CACHED_SESSIONS = 100;
+    // Sessions are shared by the connections with the same properties, as creating a session parses the properties
+    // and loads the protocol providers. The least recently used sessions are evicted once the cache is full.
+    private static final Map<Map<Object, Object>, Session> sessions =
+            new LinkedHashMap<Map<Object, Object>, Session>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Map<Object, Object>, Session> eldest) {
+
+                    return size() > MAX_CACHED_SESSIONS;
+                }
+            };
+    // Connections checked with the server within this interval are considered alive without checking them again
+    static final long VALIDATION_INTERVAL = 30000;
+
     private Session session;
     private EmailProtocol protocol;
+    private final ConnectionConfiguration connectionConfiguration;
+    private String tokenId;
+    // Access token the connection was authenticated with, if OAuth2 is enabled
+    private volatile String accessToken;
+    // Time the connection was last known to be alive with the server
+    private volatile long lastValidated;
+    // Whether the store or transport of the connection has been closed, either locally or by the server
+    private volatile boolean disconnected;
+    // Marks the connection as disconnected when the store or transport is closed
+    private final ConnectionListener connectionListener = new ConnectionAdapter() {
+        @Override
+        public void disconnected(ConnectionEvent e) {
+
+            disconnected = true;
+        }
+
+        @Override
+        public void closed(ConnectionEvent e) {
+
+            disconnected = true;
+        }
+    };
+
     /**
      * Tests the connection with the email server
      *
@@ -69,7 +112,7 @@ public class EmailConnection implements Connection {
                 javax.mail.Transport transport = null;
                 try {
                     transport = session.getTransport(protocolName);
-                    transport.connect();
+                    connect(transport);
                     if (log.isDebugEnabled()) {
                         log.debug("Successfully connected to " + protocolName + " server");
                     }
@@ -85,7 +128,7 @@ public class EmailConnection implements Connection {
             } else {
                 // For IMAP/IMAPS/POP3/POP3S protocols, use Store
                 store = session.getStore(protocolName);
-                store.connect();
+                connect(store);
                 if (log.isDebugEnabled()) {
                     log.debug("Successfully connected to " + protocolName + " server");
                 }
@@ -110,6 +153,7 @@ public class EmailConnection implements Connection {
 
     public EmailConnection(ConnectionConfiguration connectionConfiguration) throws EmailConnectionException {
 
+        this.connectionConfiguration = connectionConfiguration;
         this.protocol = connectionConfiguration.getProtocol();
         Properties sessionProperties = setSessionProperties(connectionConfiguration.getHost(),
                 connectionConfiguration.getPort(), connectionConfiguration.getRequireAuthentication());
@@ -124,6 +168,12 @@ public class EmailConnection implements Connection {
             sessionProperties.setProperty(protocol.getAuthMechanismsProperty(), EmailConstants.AUTH_MECHANISM_XOAUTH2);
         }
 
+        if (connectionConfiguration.isKeepFolderOpen()) {
+            // Retained folders may be opened in READ_WRITE mode for read operations, which should not mark the
+            // retrieved emails as SEEN
+            sessionProperties.setProperty(protocol.getPeekProperty(), TRUE);
+        }
+
         if (connectionConfiguration.getRequireAuthentication()) {
             if (connectionConfiguration.isOAuth2Enabled()) {
                 if (log.isDebugEnabled()) {
@@ -131,6 +181,7 @@ public class EmailConnection implements Connection {
                             " server for " + connectionConfiguration.getUsername() +
                             " using grant-type : " + connectionConfiguration.getOAuthConfig().getGrantType());
                 }
+                this.tokenId = connectionConfiguration.getOAuthConfig().getTokenId();
                 try {
                     String password = OAuthUtils.generateAccessToken(connectionConfiguration);
                     connectionConfiguration.setPassword(password);
@@ -142,18 +193,64 @@ public class EmailConnection implements Connection {
                     throw new EmailConnectionException("An error occurred while configuring connections", e);
                 }
             }
-            this.session = Session.getInstance(sessionProperties,
-                    new javax.mail.Authenticator() {
-                        @Override
-                        protected PasswordAuthentication getPasswordAuthentication() {
+        }
+        // Credentials are not part of the session, as they are given when connecting
+        this.session = getSession(sessionProperties);
+    }
 
-                            return new PasswordAuthentication(connectionConfiguration.getUsername(),
-                                    connectionConfiguration.getPassword());
-                        }
-                    });
+    /**
+     * Gets a session with the given properties from the cache, or creates and caches a new one if there is none
+     *
+     * @param sessionProperties Properties of the session
+     * @return the session
+     */
+    private static Session getSession(Properties sessionProperties) {
+
+        Map<Object, Object> key = new HashMap<>(sessionProperties);
+        synchronized (sessions) {
+            Session cachedSession = sessions.get(key);
+            if (cachedSession == null) {
+                cachedSession = Session.getInstance(sessionProperties, null);
+                sessions.put(key, cachedSession);
+            }
+            return cachedSession;
+        }
+    }
+
+    /**
+     * Removes all the cached sessions
+     */
+    public static void clearSessionCache() {
+
+        synchronized (sessions) {
+            sessions.clear();
+        }
+    }
+
+    /**
+     * Connects a store or a transport to the server, authenticating with the configured credentials if required
+     *
+     * @param service Store or transport to be connected
+     * @throws MessagingException if failed to connect
+     */
+    protected void connect(Service service) throws MessagingException {
+
+        String password = connectionConfiguration.getPassword();
+        if (connectionConfiguration.getRequireAuthentication() && connectionConfiguration.isOAuth2Enabled()) {
+            // The access token may have been refreshed since the connection was created
+            password = OAuthUtils.getCachedAccessToken(tokenId, password);
+            accessToken = password;
+        }
+        // Registered once per service, as the same service may be connected again
+        service.removeConnectionListener(connectionListener);
+        service.addConnectionListener(connectionListener);
+        if (connectionConfiguration.getRequireAuthentication()) {
+            service.connect(connectionConfiguration.getUsername(), password);
         } else {
-            this.session = Session.getInstance(sessionProperties, null);
+            service.connect();
         }
+        disconnected = false;
+        lastValidated = System.currentTimeMillis();
     }
 
     public Session getSession() {
@@ -161,6 +258,57 @@ public class EmailConnection implements Connection {
         return session;
     }
 
+    public String getConnectionName() {
+
+        return connectionConfiguration.getConnectionName();
+    }
+
+    /**
+     * Checks if the connection was authenticated with an access token which has since been refreshed. Such
+     * connections are replaced when they are returned to the pool, so that connections are replaced gradually
+     * instead of all at once when the token expires.
+     *
+     * @return true if the access token of the connection is no longer the current one, false otherwise
+     */
+    boolean isCredentialStale() {
+
+        return accessToken != null && !accessToken.equals(OAuthUtils.getCachedAccessToken(tokenId, accessToken));
+    }
+
+    /**
+     * Checks if the connection is alive. A connection known to be closed is reported without contacting the server,
+     * and the server is checked only if the connection has not been checked within the validation interval, so that
+     * frequently borrowed connections do not cost a round trip each time.
+     *
+     * @param validationInterval Interval in milliseconds within which the last check is trusted
+     * @return true if the connection is alive, false otherwise
+     */
+    boolean isAlive(long validationInterval) {
+
+        if (disconnected) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastValidated < validationInterval) {
+            return true;
+        }
+        boolean alive = ping();
+        if (alive) {
+            lastValidated = now;
+        }
+        return alive;
+    }
+
+    /**
+     * Checks the connection with the server, which also keeps the connection from being dropped as idle
+     *
+     * @return true if the server responded, false otherwise
+     */
+    protected boolean ping() {
+
+        return !disconnected;
+    }
+
     /**
      * Sets basic session properties required by the protocol
      *
@@ -21,21 +21,26 @@ import org.wso2.carbon.connector.core.pool.ConnectionFactory;
 import org.wso2.carbon.connector.exception.EmailConnectionException;
 import org.wso2.carbon.connector.pojo.ConnectionConfiguration;
 
+import static java.lang.String.format;
+
 /**
  * Email Connection Factory
  */
 public class EmailConnectionFactory implements ConnectionFactory {
 
     private ConnectionConfiguration connectionConfiguration;
+    // Shared by all the connections of the pool, as they connect to the same mailbox
+    private final MessageIdIndex messageIdIndex;
 
     public EmailConnectionFactory(ConnectionConfiguration connectionConfiguration) {
 
         this.connectionConfiguration = connectionConfiguration;
+        this.messageIdIndex = new MessageIdIndex();
     }
 
     @Override
     public MailBoxConnection makeObject() throws EmailConnectionException {
-        return new MailBoxConnection(connectionConfiguration);
+        return new MailBoxConnection(connectionConfiguration, messageIdIndex);
     }
 
     @Override
@@ -46,7 +51,7 @@ public class EmailConnectionFactory implements ConnectionFactory {
     @Override
     public boolean validateObject(Object connection) {
 
-        return ((MailBoxConnection) connection).isConnected();
+        return ((MailBoxConnection) connection).isAlive(EmailConnection.VALIDATION_INTERVAL);
     }
 
     @Override
@@ -55,7 +60,12 @@ public class EmailConnectionFactory implements ConnectionFactory {
     }
 
     @Override
-    public void passivateObject(Object o) {
-        // Nothing to do here
+    public void passivateObject(Object connection) throws EmailConnectionException {
+
+        // The pool destroys a connection which fails to be passivated, instead of keeping it idle
+        if (((MailBoxConnection) connection).isCredentialStale()) {
+            throw new EmailConnectionException(format("Access token of connection %s has been refreshed.",
+                    connectionConfiguration.getConnectionName()));
+        }
     }
 }
@@ -26,6 +26,7 @@ import org.wso2.carbon.connector.exception.EmailConnectionException;
 import org.wso2.carbon.connector.utils.EmailConstants;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -37,9 +38,13 @@ import static java.lang.String.format;
 public class EmailConnectionHandler {
     private static final Log log = LogFactory.getLog(EmailConnectionHandler.class);
     private static final EmailConnectionHandler handler;
-    // Stores connections/connection pools against connection code name
+    // Interval between the runs of the evictor of a pool, which tops up the idle connections, if none is configured
+    private static final long MIN_IDLE_CHECK_INTERVAL = 30000;
+    // Stores connection pools against connection code name
     // defined as <connector_name>:<connection_name>
     private final Map<String, Object> connectionMap;
+    // Listeners notifying new emails, against connection code name
+    private final Map<String, List<MailBoxListener>> listeners;
 
     static {
         handler = new EmailConnectionHandler();
@@ -48,6 +53,7 @@ public class EmailConnectionHandler {
     private EmailConnectionHandler() {
 
         this.connectionMap = new ConcurrentHashMap<>();
+        this.listeners = new ConcurrentHashMap<>();
     }
 
     /**
@@ -61,28 +67,70 @@ public class EmailConnectionHandler {
     }
 
     /**
-     * Creates a new connection pool and stores the connection
+     * Creates a new connection pool and stores the connection. A minimum number of idle connections is created in the
+     * background by the evictor of the pool and kept in the pool, so that requests do not need to wait for connections
+     * to be established. The evictor creates the connections without exceeding the maximum number of connections. The
+     * idle connections are checked with the server in the background, so that they are not dropped by the server as
+     * idle and the ones closed by the server are replaced before they are borrowed.
      *
-     * @param connectionName Name of the connection
-     * @param factory        Connection Factory that defines how to create connections
-     * @param configuration  Configurations for the connection pool
+     * @param connectionName     Name of the connection
+     * @param factory            Connection Factory that defines how to create connections
+     * @param configuration      Configurations for the connection pool
+     * @param minIdleConnections Minimum number of idle connections to be kept in the pool
+     * @param keepAliveInterval  Interval in milliseconds between the checks of the idle connections, or 0 to disable
      */
-    public void createConnection(String connectionName, ConnectionFactory factory,
-                                 Configuration configuration) {
+    public void createConnection(String connectionName, ConnectionFactory factory, Configuration configuration,
+                                 int minIdleConnections, long keepAliveInterval) {
 
         ConnectionPool pool = new ConnectionPool(factory, configuration);
-        connectionMap.putIfAbsent(getCode(connectionName), pool);
+        String connectorCode = getCode(connectionName);
+        if (connectionMap.putIfAbsent(connectorCode, pool) != null) {
+            return;
+        }
+        if (keepAliveInterval > 0) {
+            // The evictor of the pool validates all the idle connections in each run and destroys the ones which
+            // fail, which are then replaced up to the minimum number of idle connections
+            pool.setTestWhileIdle(true);
+            pool.setNumTestsPerEvictionRun(-1);
+            long evictionInterval = pool.getTimeBetweenEvictionRunsMillis();
+            if (evictionInterval <= 0 || evictionInterval > keepAliveInterval) {
+                pool.setTimeBetweenEvictionRunsMillis(keepAliveInterval);
+            }
+        }
+        if (minIdleConnections <= 0) {
+            return;
+        }
+        // The evictor tops up the idle connections in each run
+        pool.setMinIdle(minIdleConnections);
+        if (pool.getTimeBetweenEvictionRunsMillis() <= 0) {
+            pool.setTimeBetweenEvictionRunsMillis(MIN_IDLE_CHECK_INTERVAL);
+        }
+    }
+
+    /**
+     * Starts the listeners of a connection, unless the connection already has listeners
+     *
+     * @param connectionName   Name of the connection
+     * @param mailBoxListeners Listeners to be started
+     */
+    public void startListeners(String connectionName, List<MailBoxListener> mailBoxListeners) {
+
+        if (listeners.putIfAbsent(getCode(connectionName), mailBoxListeners) == null) {
+            for (MailBoxListener listener : mailBoxListeners) {
+                listener.start();
+            }
+        }
     }
 
     /**
-     * Stores a new single connection
+     * Check if the connection has listeners
      *
      * @param connectionName Name of the connection
-     * @param connection     Connection to be stored
+     * @return true if listeners exist for the connection, false otherwise
      */
-    public void createConnection(String connectionName, Connection connection) {
+    public boolean checkIfListenersExist(String connectionName) {
 
-        connectionMap.putIfAbsent(getCode(connectionName), connection);
+        return listeners.containsKey(getCode(connectionName));
     }
 
     /**
@@ -100,8 +148,6 @@ public class EmailConnectionHandler {
         if (connectionObj != null) {
             if (connectionObj instanceof ConnectionPool) {
                 connection = (Connection) ((ConnectionPool) connectionObj).borrowObject();
-            } else if (connectionObj instanceof Connection) {
-                connection = (Connection) connectionObj;
             }
         } else {
             throw new EmailConnectionException(format("Error occurred during retrieving connection. " +
@@ -110,6 +156,22 @@ public class EmailConnectionHandler {
         return connection;
     }
 
+    /**
+     * Gets the number of idle connections in the pool by connector name and connection name, which could be borrowed
+     * without waiting for a connection to be returned or established
+     *
+     * @param connectionName Name of the connection
+     * @return the number of idle connections of the pool, or 0 if the connection does not exist
+     */
+    public int getIdleConnections(String connectionName) {
+
+        Object connectionObj = connectionMap.get(getCode(connectionName));
+        if (connectionObj instanceof ConnectionPool) {
+            return ((ConnectionPool) connectionObj).getNumIdle();
+        }
+        return 0;
+    }
+
     /**
      * Return borrowed connection
      *
@@ -181,18 +243,18 @@ public class EmailConnectionHandler {
      * @param connectionObj Connection Object
      */
     private void closeConnection(String conName, Object connectionObj) {
+        List<MailBoxListener> mailBoxListeners = listeners.remove(conName);
+        if (mailBoxListeners != null) {
+            for (MailBoxListener listener : mailBoxListeners) {
+                listener.stop();
+            }
+        }
         if (connectionObj instanceof ConnectionPool) {
             try {
                 ((ConnectionPool) connectionObj).close();
             } catch (ConnectException e) {
                 log.error("Failed to close connection pool. ", e);
             }
-        } else if (connectionObj instanceof Connection) {
-            try {
-                ((Connection) connectionObj).close();
-            } catch (ConnectException e) {
-                log.error("Failed to close connection " + conName, e);
-            }
         }
     }
 
@@ -247,6 +247,16 @@ public enum EmailProtocol {
         return unmaskProperty(EmailConnectionConstants.PROPERTY_AUTH_MECHANISMS);
     }
 
+    /**
+     * Whether the SEEN flag should be left unchanged when the message content is retrieved. Default is false.
+     *
+     * @return the peek property
+     */
+    public String getPeekProperty() {
+
+        return unmaskProperty(EmailConnectionConstants.PROPERTY_PEEK);
+    }
+
     private String unmaskProperty(String property) {
 
         return format(property, name);
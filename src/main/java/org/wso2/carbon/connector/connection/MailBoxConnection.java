@@ -17,14 +17,20 @@
  */
 package org.wso2.carbon.connector.connection;
 
+import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.IMAPStore;
+import com.sun.mail.imap.ResyncData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.carbon.connector.exception.EmailConnectionException;
 import org.wso2.carbon.connector.pojo.ConnectionConfiguration;
 
+import java.util.Collections;
+import java.util.List;
 import javax.mail.Folder;
 import javax.mail.MessagingException;
 import javax.mail.Store;
+import javax.mail.event.MailEvent;
 
 import static java.lang.String.format;
 
@@ -34,16 +40,25 @@ import static java.lang.String.format;
 public class MailBoxConnection extends EmailConnection {
 
     private static final Logger log = LoggerFactory.getLogger(MailBoxConnection.class);
+    // Name of the folder of which the name is case-insensitive
+    private static final String INBOX = "INBOX";
 
     private Store store;
     private Folder folder;
+    private final MessageIdIndex messageIdIndex;
+    // Whether the folder should be kept selected after an operation, so that it could be reused by the next operation
+    private final boolean keepFolderOpen;
 
-    MailBoxConnection(ConnectionConfiguration connectionConfiguration) throws EmailConnectionException {
+    MailBoxConnection(ConnectionConfiguration connectionConfiguration, MessageIdIndex messageIdIndex)
+            throws EmailConnectionException {
 
         super(connectionConfiguration);
+        this.messageIdIndex = messageIdIndex;
+        this.keepFolderOpen = connectionConfiguration.isKeepFolderOpen()
+                && EmailProtocol.IMAP.getName().equals(connectionConfiguration.getProtocol().getName());
         try {
             this.store = this.getSession().getStore(connectionConfiguration.getProtocol().getName());
-            this.store.connect();
+            connect(this.store);
         } catch (MessagingException e) {
             throw new EmailConnectionException("Error occurred while connecting to the store.", e);
         }
@@ -53,7 +68,8 @@ public class MailBoxConnection extends EmailConnection {
      * Opens and return the email folder.
      * <p>
      * If there was an already opened folder and a different one is requested the opened folder will be closed
-     * and the new one will be opened.
+     * and the new one will be opened. If folders are kept open, a folder opened in READ_WRITE mode is reused for
+     * READ_ONLY requests and a folder opened in READ_ONLY mode is reopened only if READ_WRITE mode is requested.
      *
      * @param mailBoxFolder the name of the folder to be opened.
      * @param openMode      open the folder in READ_ONLY or READ_WRITE mode
@@ -63,10 +79,11 @@ public class MailBoxConnection extends EmailConnection {
 
         try {
             if (folder != null) {
-                if (isCurrentFolder(mailBoxFolder) && folder.isOpen() && folder.getMode() == openMode) {
+                if (isCurrentFolder(mailBoxFolder) && folder.isOpen() && (folder.getMode() == openMode
+                        || (keepFolderOpen && openMode == Folder.READ_ONLY))) {
                     return folder;
                 }
-                closeFolder(false);
+                closeOpenedFolder(false);
             }
 
             folder = store.getFolder(mailBoxFolder);
@@ -78,18 +95,98 @@ public class MailBoxConnection extends EmailConnection {
         return folder;
     }
 
+    /**
+     * Opens the folder in READ_ONLY mode, resynchronizing it from a previously known state (IMAP only). The opened
+     * folder is returned by the subsequent {@link #getFolder(String, int)} requests for READ_ONLY mode.
+     *
+     * @param mailBoxFolder the name of the folder to be opened
+     * @param resyncData    state of the folder known to the client, or {@link ResyncData#CONDSTORE} to only enable
+     *                      modification sequences
+     * @return the changes since the given state reported by the server, such as the UIDs of the removed emails
+     */
+    public List<MailEvent> openFolder(String mailBoxFolder, ResyncData resyncData) throws EmailConnectionException {
+
+        try {
+            closeOpenedFolder(false);
+            IMAPFolder imapFolder = (IMAPFolder) store.getFolder(mailBoxFolder);
+            List<MailEvent> events = imapFolder.open(Folder.READ_ONLY, resyncData);
+            folder = imapFolder;
+            return events != null ? events : Collections.emptyList();
+        } catch (MessagingException e) {
+            throw new EmailConnectionException(format("Error while opening folder : %s.", mailBoxFolder), e);
+        }
+    }
+
+    /**
+     * Checks if the server supports an IMAP capability
+     *
+     * @param capability name of the capability
+     * @return true if the server is an IMAP server which supports the capability, false otherwise
+     */
+    public boolean hasCapability(String capability) throws EmailConnectionException {
+
+        if (!(store instanceof IMAPStore)) {
+            return false;
+        }
+        try {
+            return ((IMAPStore) store).hasCapability(capability);
+        } catch (MessagingException e) {
+            throw new EmailConnectionException(format("Error occurred while checking server capability: %s.",
+                    capability), e);
+        }
+    }
+
+    /**
+     * Gets the index of the UIDs of the emails against their Message-IDs, shared among the connections to the mailbox
+     *
+     * @return the Message-ID index
+     */
+    public MessageIdIndex getMessageIdIndex() {
+
+        return messageIdIndex;
+    }
+
     /**
      * Closes the current connection folder.
+     * <p>
+     * If folders are kept open, the folder is not closed and the emails marked as DELETED are removed explicitly.
      *
      * @param expunge whether to remove all the emails marked as DELETED.
      */
     public void closeFolder(boolean expunge) throws EmailConnectionException {
 
+        if (!keepFolderOpen) {
+            closeOpenedFolder(expunge);
+            return;
+        }
+        if (expunge && folder != null && folder.isOpen() && folder.getMode() == Folder.READ_WRITE) {
+            try {
+                if (log.isDebugEnabled()) {
+                    log.debug(format("Expunging folder: %s ...", folder.getFullName()));
+                }
+                folder.expunge();
+            } catch (MessagingException e) {
+                throw new EmailConnectionException(format("Error occurred while expunging folder: %s.",
+                        folder.getFullName()), e);
+            }
+        }
+    }
+
+    /**
+     * Closes the opened folder irrespective of whether folders are kept open.
+     *
+     * @param expunge whether to remove all the emails marked as DELETED.
+     */
+    private void closeOpenedFolder(boolean expunge) throws EmailConnectionException {
+
+        if (folder == null) {
+            return;
+        }
         try {
             if (log.isDebugEnabled()) {
                 log.debug(format("Closing folder: %s ...", this.folder.getFullName()));
             }
-            if (folder != null && folder.isOpen()) {
+            if (folder.isOpen()) {
                 folder.close(expunge);
             }
         } catch (MessagingException e) {
@@ -99,14 +196,23 @@ public class MailBoxConnection extends EmailConnection {
     }
 
     /**
-     * Checks if a mailBoxFolder name is the same name as the current folder.
+     * Checks if a mailBoxFolder name is the full name of the current folder. Folders with the same name under different
+     * parents, such as Work/Archive and Personal/Archive, are different folders. Only INBOX is matched ignoring the
+     * case, as its name is case-insensitive.
      *
-     * @param mailBoxFolder the name of the folder
+     * @param mailBoxFolder the full name of the folder
      * @return true if is the same folder, false otherwise.
      */
     private boolean isCurrentFolder(String mailBoxFolder) {
 
-        return folder.getName() != null && folder.getName().equalsIgnoreCase(mailBoxFolder);
+        String fullName = folder.getFullName();
+        if (fullName == null || mailBoxFolder == null) {
+            return false;
+        }
+        if (INBOX.equalsIgnoreCase(mailBoxFolder)) {
+            return INBOX.equalsIgnoreCase(fullName);
+        }
+        return fullName.equals(mailBoxFolder);
     }
 
     /**
@@ -115,7 +221,7 @@ public class MailBoxConnection extends EmailConnection {
      void disconnect() {
 
         try {
-            closeFolder(false);
+            closeOpenedFolder(false);
         } catch (Exception e) {
             log.error(format("Error closing mailbox folder %s when disconnecting.", folder.getName()), e);
         } finally {
@@ -128,12 +234,19 @@ public class MailBoxConnection extends EmailConnection {
     }
 
     /**
-     * Checks if the store is connection is active
+     * Checks the store with the server. A folder kept open has a connection of its own, which is also checked, so
+     * that it is not dropped by the server while the connection is idle in the pool. A folder found to be closed
+     * is opened again when it is requested.
      *
-     * @return true if the connection is active, false otherwise
+     * @return true if the store is connected, false otherwise
      */
-    boolean isConnected() {
+    @Override
+    protected boolean ping() {
 
+        if (folder != null) {
+            // Sends a NOOP over the connection of the folder if it is open
+            folder.isOpen();
+        }
         return store.isConnected();
     }
 }
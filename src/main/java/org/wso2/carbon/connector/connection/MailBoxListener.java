@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.connection;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.IMAPStore;
+import org.apache.axis2.AxisFault;
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.Mediator;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.commons.json.JsonUtil;
+import org.apache.synapse.core.SynapseEnvironment;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.mediators.base.SequenceMediator;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
+import org.wso2.carbon.connector.exception.EmailParsingException;
+import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+import org.wso2.carbon.connector.pojo.ConnectionConfiguration;
+import org.wso2.carbon.connector.pojo.EmailMessage;
+import org.wso2.carbon.connector.pojo.LazyEmailMessage;
+import org.wso2.carbon.connector.utils.ResponseConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.mail.FetchProfile;
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.UIDFolder;
+import javax.mail.internet.MimeMessage;
+
+import static java.lang.String.format;
+
+/**
+ * Listens to a mailbox folder for new emails and injects them into a sequence.
+ * <p>
+ * A dedicated connection is kept with the folder selected and the server is asked to notify changes with the IMAP
+ * IDLE command, which is reissued periodically so that it is not ended by the server or dropped as idle. If the
+ * server does not support IDLE, the folder is checked with NOOP commands instead. The emails which arrived while the
+ * listener was reconnecting are injected once it is reconnected.
+ */
+public class MailBoxListener implements Runnable {
+
+    private static final Log log = LogFactory.getLog(MailBoxListener.class);
+
+    private static final String IDLE_CAPABILITY = "IDLE";
+    // Servers may end an IDLE command after 30 minutes as per RFC 2177
+    private static final long MAX_IDLE_DURATION = 20 * 60 * 1000L;
+    // Interval between the NOOP commands if the server does not support IDLE
+    private static final long NOOP_INTERVAL = 30000;
+    // Minimum interval between the IDLE commands, so that the server is not flooded with them
+    private static final long MIN_IDLE_RENEW_INTERVAL = 1000;
+    private static final long MIN_RECONNECT_DELAY = 1000;
+    private static final long MAX_RECONNECT_DELAY = 5 * 60 * 1000L;
+
+    // Interrupts the IDLE commands of all the listeners to reissue them
+    private static final ScheduledExecutorService idleRenewer = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "email-connector-idle-renewer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final ConnectionConfiguration connectionConfiguration;
+    private final String folderName;
+    private final String sequenceName;
+    private final SynapseEnvironment synapseEnvironment;
+    private final long idleRenewInterval;
+    private volatile boolean running;
+    private volatile MailBoxConnection connection;
+    private Thread thread;
+    private long reconnectDelay = MIN_RECONNECT_DELAY;
+    // Identifies the last email notified, so that only the emails received after it are notified
+    private long uidValidity = -1;
+    private long lastUid;
+
+    /**
+     * Creates a listener of a folder
+     *
+     * @param connectionConfiguration Configuration of the connection to listen with
+     * @param folderName              Name of the folder to listen to
+     * @param sequenceName            Name of the sequence into which the new emails are injected
+     * @param synapseEnvironment      Synapse environment into which the new emails are injected
+     * @throws InvalidConfigurationException if the read timeout is too short to wait for changes
+     */
+    public MailBoxListener(ConnectionConfiguration connectionConfiguration, String folderName, String sequenceName,
+                           SynapseEnvironment synapseEnvironment) throws InvalidConfigurationException {
+
+        this.connectionConfiguration = connectionConfiguration;
+        this.folderName = folderName;
+        this.sequenceName = sequenceName;
+        this.synapseEnvironment = synapseEnvironment;
+        long renewInterval = MAX_IDLE_DURATION;
+        if (connectionConfiguration.getKeepAliveInterval() > 0) {
+            renewInterval = Math.min(renewInterval, connectionConfiguration.getKeepAliveInterval());
+        }
+        // The read timeout applies while waiting for the server to respond to the IDLE command
+        long readTimeout = NumberUtils.toLong(connectionConfiguration.getReadTimeout(), 0);
+        if (readTimeout > 0) {
+            if (readTimeout < 2 * MIN_IDLE_RENEW_INTERVAL) {
+                throw new InvalidConfigurationException(format("Parameter 'read timeout' must be at least %d ms to " +
+                        "listen to new emails.", 2 * MIN_IDLE_RENEW_INTERVAL));
+            }
+            renewInterval = Math.min(renewInterval, readTimeout / 2);
+        }
+        this.idleRenewInterval = Math.max(renewInterval, MIN_IDLE_RENEW_INTERVAL);
+    }
+
+    /**
+     * Starts listening to the folder on a new thread
+     */
+    public synchronized void start() {
+
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, format("email-connector-listener-%s-%s", connectionConfiguration.getConnectionName(),
+                folderName));
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops listening to the folder and closes the connection
+     */
+    public synchronized void stop() {
+
+        running = false;
+        disconnect();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+
+        while (running) {
+            try {
+                listen();
+            } catch (EmailConnectionException | MessagingException | EmailParsingException | RuntimeException e) {
+                // The listener keeps reconnecting until it is stopped
+                if (!running) {
+                    break;
+                }
+                log.warn(format("Error occurred while listening to folder: %s of connection: %s. Reconnecting in " +
+                        "%d ms.", folderName, connectionConfiguration.getConnectionName(), reconnectDelay), e);
+                disconnect();
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+            }
+        }
+        disconnect();
+    }
+
+    /**
+     * Connects to the folder and waits for changes until the listener is stopped or the connection fails
+     */
+    private void listen() throws EmailConnectionException, MessagingException, EmailParsingException {
+
+        connection = new MailBoxConnection(connectionConfiguration, new MessageIdIndex());
+        IMAPFolder folder = (IMAPFolder) connection.getFolder(folderName, Folder.READ_ONLY);
+        if (log.isDebugEnabled()) {
+            log.debug(format("Listening to folder: %s of connection: %s ...", folderName,
+                    connectionConfiguration.getConnectionName()));
+        }
+        checkNewMessages(folder);
+        reconnectDelay = MIN_RECONNECT_DELAY;
+        boolean idleSupported = ((IMAPStore) folder.getStore()).hasCapability(IDLE_CAPABILITY);
+        ScheduledFuture<?> idleRenewal = null;
+        if (idleSupported) {
+            idleRenewal = idleRenewer.scheduleWithFixedDelay(() -> renewIdle(folder), idleRenewInterval,
+                    idleRenewInterval, TimeUnit.MILLISECONDS);
+        } else {
+            log.info(format("Server of connection: %s does not support IDLE. Folder: %s is checked every %d ms.",
+                    connectionConfiguration.getConnectionName(), folderName, NOOP_INTERVAL));
+        }
+        try {
+            while (running) {
+                if (idleSupported) {
+                    // Returns when the server notifies a change or when another thread uses the folder
+                    folder.idle();
+                } else {
+                    noop(folder);
+                    Thread.sleep(NOOP_INTERVAL);
+                }
+                // The new emails are looked up by UID on each wake-up, as the message count does not change if an
+                // email is removed while another one arrives
+                if (running) {
+                    checkNewMessages(folder);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } finally {
+            if (idleRenewal != null) {
+                idleRenewal.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Ends the IDLE command by sending a NOOP command, so that it is reissued by the listener
+     *
+     * @param folder Folder which is idling
+     */
+    private void renewIdle(IMAPFolder folder) {
+
+        try {
+            noop(folder);
+        } catch (MessagingException e) {
+            // The listener reconnects, as the IDLE command fails as well
+            if (log.isDebugEnabled()) {
+                log.debug(format("Failed to renew IDLE command for folder: %s.", folderName), e);
+            }
+        }
+    }
+
+    private static void noop(IMAPFolder folder) throws MessagingException {
+
+        folder.doCommand(protocol -> {
+            protocol.noop();
+            return null;
+        });
+    }
+
+    /**
+     * Injects the emails received after the last notified email. When the folder is first opened or has been
+     * recreated, the emails in the folder are not notified.
+     *
+     * @param folder Opened folder
+     */
+    private void checkNewMessages(IMAPFolder folder) throws MessagingException, EmailParsingException {
+
+        if (folder.getUIDValidity() != uidValidity) {
+            if (uidValidity != -1) {
+                log.warn(format("Folder: %s of connection: %s has been recreated. Emails received while " +
+                        "reconnecting are not notified.", folderName, connectionConfiguration.getConnectionName()));
+            }
+            uidValidity = folder.getUIDValidity();
+            lastUid = folder.getUIDNext() - 1;
+            if (lastUid < 0) {
+                int messageCount = folder.getMessageCount();
+                lastUid = messageCount > 0 ? folder.getUID(folder.getMessage(messageCount)) : 0;
+            }
+            return;
+        }
+        List<Message> newMessages = new ArrayList<>();
+        for (Message message : folder.getMessagesByUID(lastUid + 1, UIDFolder.LASTUID)) {
+            // The last email is returned even if it is not newer than the given UID
+            if (message != null && folder.getUID(message) > lastUid) {
+                newMessages.add(message);
+            }
+        }
+        if (newMessages.isEmpty()) {
+            return;
+        }
+        // Advanced only once the emails are injected, so that the emails which failed are notified on the next check
+        if (inject(parseMessageHeaders(folder, newMessages))) {
+            lastUid = folder.getUID(newMessages.get(newMessages.size() - 1));
+        }
+    }
+
+    /**
+     * Gets the headers of the new emails in a single request. The content of the emails is fetched only when it is
+     * requested from the injected emails.
+     */
+    private List<EmailMessage> parseMessageHeaders(IMAPFolder folder, List<Message> messages)
+            throws MessagingException, EmailParsingException {
+
+        FetchProfile fetchProfile = new FetchProfile();
+        fetchProfile.add(FetchProfile.Item.ENVELOPE);
+        fetchProfile.add(FetchProfile.Item.CONTENT_INFO);
+        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        List<EmailMessage> emails = new ArrayList<>();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(javax.mail.Message.class.getClassLoader());
+            folder.fetch(messages.toArray(new Message[0]), fetchProfile);
+            for (Message message : messages) {
+                emails.add(new LazyEmailMessage(connectionConfiguration.getConnectionName(), folder,
+                        (MimeMessage) message));
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(classLoader);
+        }
+        return emails;
+    }
+
+    /**
+     * Injects the new emails into the sequence as a JSON payload
+     *
+     * @param emails New emails
+     * @return true if the emails are injected, false otherwise
+     */
+    private boolean inject(List<EmailMessage> emails) {
+
+        Mediator sequence = synapseEnvironment.getSynapseConfiguration().getSequence(sequenceName);
+        if (!(sequence instanceof SequenceMediator)) {
+            log.error(format("Sequence: %s to notify new emails of connection: %s is not found.", sequenceName,
+                    connectionConfiguration.getConnectionName()));
+            return false;
+        }
+        JsonObject payload = new JsonObject();
+        payload.addProperty("connection", connectionConfiguration.getConnectionName());
+        payload.addProperty("folder", folderName);
+        JsonArray emailsArray = new JsonArray();
+        for (EmailMessage email : emails) {
+            JsonObject emailObject = new JsonObject();
+            emailObject.addProperty("emailId", email.getEmailId());
+            emailObject.addProperty("to", email.getTo());
+            emailObject.addProperty("from", email.getFrom());
+            emailObject.addProperty("cc", email.getCc());
+            emailObject.addProperty("replyTo", email.getReplyTo());
+            emailObject.addProperty("subject", email.getSubject());
+            emailsArray.add(emailObject);
+        }
+        payload.add("emails", emailsArray);
+
+        MessageContext messageContext = synapseEnvironment.createMessageContext();
+        messageContext.setProperty(ResponseConstants.PROPERTY_EMAILS, emails);
+        org.apache.axis2.context.MessageContext axisMsgCtx =
+                ((Axis2MessageContext) messageContext).getAxis2MessageContext();
+        try {
+            JsonUtil.getNewJsonPayload(axisMsgCtx, payload.toString(), true, true);
+        } catch (AxisFault e) {
+            log.error(format("Error occurred while notifying new emails of folder: %s.", folderName), e);
+            return false;
+        }
+        axisMsgCtx.setProperty(org.apache.axis2.Constants.Configuration.MESSAGE_TYPE,
+                ResponseConstants.JSON_CONTENT_TYPE);
+        axisMsgCtx.setProperty(org.apache.axis2.Constants.Configuration.CONTENT_TYPE,
+                ResponseConstants.JSON_CONTENT_TYPE);
+        return synapseEnvironment.injectAsync(messageContext, (SequenceMediator) sequence);
+    }
+
+    private void disconnect() {
+
+        MailBoxConnection mailBoxConnection = connection;
+        if (mailBoxConnection != null) {
+            connection = null;
+            mailBoxConnection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.connection;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded index of the IMAP UIDs of the emails against their Message-IDs, maintained per mailbox folder.
+ * <p>
+ * The UIDs of a folder are only valid for a given UIDVALIDITY. Hence, the entries of a folder are discarded when a
+ * different UIDVALIDITY is observed for the folder. The least recently used entries are evicted once the number of
+ * entries of a folder exceeds the configured maximum.
+ */
+public class MessageIdIndex {
+
+    public static final long UNKNOWN_UID = -1L;
+    private static final int DEFAULT_MAX_ENTRIES_PER_FOLDER = 10000;
+
+    private final int maxEntriesPerFolder;
+    private final Map<String, FolderIndex> folderIndexes = new HashMap<>();
+
+    public MessageIdIndex() {
+
+        this(DEFAULT_MAX_ENTRIES_PER_FOLDER);
+    }
+
+    public MessageIdIndex(int maxEntriesPerFolder) {
+
+        this.maxEntriesPerFolder = maxEntriesPerFolder;
+    }
+
+    /**
+     * Adds the UID of an email to the index
+     *
+     * @param folderName  Full name of the folder
+     * @param uidValidity UIDVALIDITY of the folder
+     * @param messageId   Message-ID of the email
+     * @param uid         UID of the email
+     */
+    public synchronized void put(String folderName, long uidValidity, String messageId, long uid) {
+
+        if (messageId == null || uid == UNKNOWN_UID) {
+            return;
+        }
+        getFolderIndex(folderName, uidValidity).uids.put(messageId, uid);
+    }
+
+    /**
+     * Gets the UID of an email
+     *
+     * @param folderName  Full name of the folder
+     * @param uidValidity UIDVALIDITY of the folder
+     * @param messageId   Message-ID of the email
+     * @return the UID of the email, or {@link #UNKNOWN_UID} if the email is not indexed
+     */
+    public synchronized long get(String folderName, long uidValidity, String messageId) {
+
+        Long uid = getFolderIndex(folderName, uidValidity).uids.get(messageId);
+        return uid != null ? uid : UNKNOWN_UID;
+    }
+
+    /**
+     * Removes an email from the index
+     *
+     * @param folderName Full name of the folder
+     * @param messageId  Message-ID of the email
+     */
+    public synchronized void remove(String folderName, String messageId) {
+
+        FolderIndex folderIndex = folderIndexes.get(folderName);
+        if (folderIndex != null) {
+            folderIndex.uids.remove(messageId);
+        }
+    }
+
+    /**
+     * Removes all the entries of the index
+     */
+    public synchronized void clear() {
+
+        folderIndexes.clear();
+    }
+
+    private FolderIndex getFolderIndex(String folderName, long uidValidity) {
+
+        FolderIndex folderIndex = folderIndexes.get(folderName);
+        if (folderIndex == null || folderIndex.uidValidity != uidValidity) {
+            folderIndex = new FolderIndex(uidValidity, maxEntriesPerFolder);
+            folderIndexes.put(folderName, folderIndex);
+        }
+        return folderIndex;
+    }
+
+    /**
+     * UIDs of the emails of a single folder
+     */
+    private static class FolderIndex {
+
+        private final long uidValidity;
+        private final Map<String, Long> uids;
+
+        FolderIndex(long uidValidity, int maxEntries) {
+
+            this.uidValidity = uidValidity;
+            this.uids = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+}
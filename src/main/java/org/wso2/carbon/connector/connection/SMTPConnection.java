@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
+import org.wso2.carbon.connector.pojo.ConnectionConfiguration;
+
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * Represents a connection to an SMTP server, which is kept connected to send multiple emails
+ */
+public class SMTPConnection extends EmailConnection {
+
+    private static final Logger log = LoggerFactory.getLogger(SMTPConnection.class);
+
+    private final Transport transport;
+    private final int maxMessages;
+    private int sentMessages;
+
+    SMTPConnection(ConnectionConfiguration connectionConfiguration) throws EmailConnectionException {
+
+        super(connectionConfiguration);
+        this.maxMessages = connectionConfiguration.getMaxMessagesPerConnection();
+        try {
+            this.transport = this.getSession().getTransport(connectionConfiguration.getProtocol().getName());
+            connect(this.transport);
+        } catch (MessagingException e) {
+            throw new EmailConnectionException("Error occurred while connecting to the SMTP server.", e);
+        }
+    }
+
+    /**
+     * Sends the message to all its recipients over the connection
+     *
+     * @param message Message to be sent
+     * @throws MessagingException if failed to send the message
+     */
+    public void sendMessage(MimeMessage message) throws MessagingException {
+
+        // Counted irrespective of the result, as a failed transaction also adds to the load of the connection
+        sentMessages++;
+        message.saveChanges();
+        transport.sendMessage(message, message.getAllRecipients());
+    }
+
+    /**
+     * Checks if the maximum number of messages to be sent over the connection is reached, so that it should be
+     * replaced with a new connection
+     *
+     * @return true if no more messages should be sent over the connection, false otherwise
+     */
+    public boolean isExhausted() {
+
+        return maxMessages > 0 && sentMessages >= maxMessages;
+    }
+
+    /**
+     * Checks if the connection is active. This sends a NOOP command, or RSET if configured, to the server.
+     *
+     * @return true if the connection is active, false otherwise
+     */
+    public boolean isConnected() {
+
+        return transport.isConnected();
+    }
+
+    @Override
+    protected boolean ping() {
+
+        return isConnected();
+    }
+
+    /**
+     * Closes the connection to the server
+     */
+    void disconnect() {
+
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.error("Error closing transport when disconnecting.", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.connection;
+
+import org.wso2.carbon.connector.core.pool.ConnectionFactory;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
+import org.wso2.carbon.connector.pojo.ConnectionConfiguration;
+
+import static java.lang.String.format;
+
+/**
+ * SMTP Connection Factory
+ */
+public class SMTPConnectionFactory implements ConnectionFactory {
+
+    private ConnectionConfiguration connectionConfiguration;
+
+    public SMTPConnectionFactory(ConnectionConfiguration connectionConfiguration) {
+
+        this.connectionConfiguration = connectionConfiguration;
+    }
+
+    @Override
+    public SMTPConnection makeObject() throws EmailConnectionException {
+
+        return new SMTPConnection(connectionConfiguration);
+    }
+
+    @Override
+    public void destroyObject(Object connection) {
+
+        ((SMTPConnection) connection).disconnect();
+    }
+
+    @Override
+    public boolean validateObject(Object connection) {
+
+        SMTPConnection smtpConnection = (SMTPConnection) connection;
+        return !smtpConnection.isExhausted() && smtpConnection.isAlive(EmailConnection.VALIDATION_INTERVAL);
+    }
+
+    @Override
+    public void activateObject(Object connection) {
+        // Nothing to do here
+    }
+
+    @Override
+    public void passivateObject(Object connection) throws EmailConnectionException {
+
+        // The pool destroys a connection which fails to be passivated, instead of keeping it idle
+        SMTPConnection smtpConnection = (SMTPConnection) connection;
+        if (smtpConnection.isExhausted()) {
+            throw new EmailConnectionException(format("Maximum number of messages per connection reached for %s.",
+                    connectionConfiguration.getConnectionName()));
+        } else if (smtpConnection.isCredentialStale()) {
+            throw new EmailConnectionException(format("Access token of connection %s has been refreshed.",
+                    connectionConfiguration.getConnectionName()));
+        }
+    }
+}
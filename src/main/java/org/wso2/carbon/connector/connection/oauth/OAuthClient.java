@@ -16,26 +16,29 @@
  */
 package org.wso2.carbon.connector.connection.oauth;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
 import org.wso2.carbon.connector.exception.EmailConnectionException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class represents the client used to request and retrieve OAuth tokens
@@ -45,83 +48,104 @@ public class OAuthClient {
 
     private static final Log log = LogFactory.getLog(OAuthClient.class);
 
+    private static final int MAX_CONNECTIONS = 20;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 5;
+    private static final long IDLE_CONNECTION_TIMEOUT = 60;
+    // Kept alive and shared by all the token requests, so that a refresh does not need a new connection
+    private static final CloseableHttpClient httpClient = createHttpClient();
+
     /**
      *
      * @param url token url
      * @param headers headers
      * @param payload payload
+     * @param connectionTimeout timeout in milliseconds to connect to the token endpoint
+     * @param readTimeout timeout in milliseconds to wait for the response of the token endpoint
      * @return The Token opject
      * @throws IOException
      * @throws EmailConnectionException
      */
-    public static Token generateAccessToken(String url, Map<String, String> headers, String payload)
+    public static Token generateAccessToken(String url, Map<String, String> headers, String payload,
+                                            int connectionTimeout, int readTimeout)
             throws IOException, EmailConnectionException {
-        Token token;
         if (log.isDebugEnabled()) {
             log.debug("Initializing token generation request: [token-endpoint] " + url);
         }
-        CloseableHttpClient httpClient = getHttpClient();
         HttpPost httpPost = new HttpPost(url);
-        try {
-            for (Map.Entry<String, String> header : headers.entrySet()) {
-                httpPost.setHeader(header.getKey(), header.getValue());
-            }
-
-            httpPost.setEntity(new StringEntity(payload));
-            CloseableHttpResponse response = httpClient.execute(httpPost);
-            token = extractToken(response);
-        } finally {
-            httpClient.close();
-            httpPost.releaseConnection();
+        httpPost.setConfig(RequestConfig.custom()
+                .setConnectTimeout(connectionTimeout)
+                .setConnectionRequestTimeout(connectionTimeout)
+                .setSocketTimeout(readTimeout)
+                .build());
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            httpPost.setHeader(header.getKey(), header.getValue());
+        }
+        httpPost.setEntity(new StringEntity(payload));
+        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+            return extractToken(response);
         }
-        return token;
     }
 
     private static Token extractToken(CloseableHttpResponse response) throws EmailConnectionException, IOException {
         int responseCode = response.getStatusLine().getStatusCode();
 
-        HttpEntity entity = response.getEntity();
-
-        Charset charset = ContentType.getOrDefault(entity).getCharset();
-        if (charset == null) {
-            charset = StandardCharsets.UTF_8;
-        }
-
-        BufferedReader reader = new BufferedReader(new InputStreamReader(entity.getContent(), charset));
-        String inputLine;
-        StringBuilder stringBuilder = new StringBuilder();
-
-        while ((inputLine = reader.readLine()) != null) {
-            stringBuilder.append(inputLine);
-        }
-
         if (log.isDebugEnabled()) {
             log.debug("Response: [status-code] " + responseCode);
         }
 
+        HttpEntity entity = response.getEntity();
         if (responseCode != HttpStatus.SC_OK) {
+            EntityUtils.consumeQuietly(entity);
             throw new EmailConnectionException("Error occurred while accessing the Token URL. "
                     + response.getStatusLine());
         }
 
-        JsonObject jsonObject = JsonParser.parseString(stringBuilder.toString()).getAsJsonObject();
-        if (jsonObject.has(OAuthConstants.ACCESS_TOKEN)) {
-            String accessToken = jsonObject.get(OAuthConstants.ACCESS_TOKEN).getAsString();
-            if (jsonObject.has(OAuthConstants.EXPIRES_IN)) {
-                long expiresIn = jsonObject.get(OAuthConstants.EXPIRES_IN).getAsLong();
-                long expiryTime = System.currentTimeMillis() + expiresIn * 1000;
-                return new Token(accessToken, expiryTime);
-            } else {
-                throw new EmailConnectionException("Missing key [" + OAuthConstants.EXPIRES_IN + "] " +
-                        "in the response from the OAuth server");
+        Charset charset = ContentType.getOrDefault(entity).getCharset();
+        if (charset == null) {
+            charset = StandardCharsets.UTF_8;
+        }
+
+        String accessToken = null;
+        Long expiresIn = null;
+        try {
+            JsonReader reader = new JsonReader(new InputStreamReader(entity.getContent(), charset));
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (OAuthConstants.ACCESS_TOKEN.equals(name) && reader.peek() == JsonToken.STRING) {
+                    accessToken = reader.nextString();
+                } else if (OAuthConstants.EXPIRES_IN.equals(name) && reader.peek() != JsonToken.NULL) {
+                    expiresIn = reader.nextLong();
+                } else {
+                    reader.skipValue();
+                }
             }
-        } else {
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new EmailConnectionException("Invalid response from the OAuth server.", e);
+        } finally {
+            // Fully reads the response, so that the connection could be reused
+            EntityUtils.consumeQuietly(entity);
+        }
+
+        if (accessToken == null) {
             throw new EmailConnectionException("Missing key [" + OAuthConstants.ACCESS_TOKEN + "] " +
                     "in the response from the OAuth server");
+        } else if (expiresIn == null) {
+            throw new EmailConnectionException("Missing key [" + OAuthConstants.EXPIRES_IN + "] " +
+                    "in the response from the OAuth server");
         }
+        return new Token(accessToken, System.currentTimeMillis() + expiresIn * 1000);
     }
 
-    private static CloseableHttpClient getHttpClient() {
-        return HttpClientBuilder.create().build();
+    private static CloseableHttpClient createHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        return HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_CONNECTION_TIMEOUT, TimeUnit.SECONDS)
+                .build();
     }
 }
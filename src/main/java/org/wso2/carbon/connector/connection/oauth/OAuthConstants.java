@@ -39,4 +39,9 @@ public class OAuthConstants {
     // elements in the oauth response
     public static final String ACCESS_TOKEN = "access_token";
     public static final String EXPIRES_IN = "expires_in";
+
+    // default time in milliseconds before the expiry of a token to refresh it
+    public static final long DEFAULT_TOKEN_REFRESH_SKEW = 300000;
+    // default timeout in milliseconds of the requests to the token endpoint
+    public static final int DEFAULT_TOKEN_REQUEST_TIMEOUT = 30000;
 }
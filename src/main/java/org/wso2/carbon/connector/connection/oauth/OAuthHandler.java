@@ -35,6 +35,10 @@ public abstract class OAuthHandler {
     private final String clientSecret;
     private final String tokenUrl;
     private final String tokenId;
+    // Time in milliseconds before the expiry of the token to refresh it
+    private long tokenRefreshSkew = OAuthConstants.DEFAULT_TOKEN_REFRESH_SKEW;
+    private int connectionTimeout = OAuthConstants.DEFAULT_TOKEN_REQUEST_TIMEOUT;
+    private int readTimeout = OAuthConstants.DEFAULT_TOKEN_REQUEST_TIMEOUT;
 
     protected OAuthHandler(String username, String clientId, String clientSecret, String tokenUrl, String tokenId) {
         this.username = username;
@@ -45,32 +49,47 @@ public abstract class OAuthHandler {
     }
 
     /**
-     * Generate access-token
+     * Get access-token, which is requested from the token endpoint only if there is no valid token in the cache
      * @return Access token
      * @throws EmailConnectionException
      */
     public String generateAccessToken() throws EmailConnectionException {
         log.debug("Generating access token");
-        Token token = refreshAccessToken();
-        storeToken(token);
-        return token.getAccessToken();
+        return TokenCache.getInstance().getAccessToken(this);
     }
 
-    private void storeToken(Token token) {
-        TokenCache tokenCache = TokenCache.getInstance();
-        tokenCache.addToken(tokenId, token);
-    }
-
-    private Token refreshAccessToken() throws EmailConnectionException {
+    /**
+     * Request a new access-token from the token endpoint
+     * @return Token received
+     * @throws EmailConnectionException
+     */
+    Token requestAccessToken() throws EmailConnectionException {
         Map<String,String> headers = new HashMap<>();
         headers.put(OAuthConstants.HEADER_CONTENT_TYPE, OAuthConstants.APPLICATION_X_WWW_FORM_URLENCODED);
         try {
-            return OAuthClient.generateAccessToken(getTokenUrl(), headers, buildTokenRequestPayload());
+            return OAuthClient.generateAccessToken(getTokenUrl(), headers, buildTokenRequestPayload(),
+                    connectionTimeout, readTimeout);
         } catch (IOException e) {
-            throw new EmailConnectionException("An error occurred while refreshing access token", e.getCause());
+            throw new EmailConnectionException("An error occurred while refreshing access token", e);
         }
     }
 
+    public long getTokenRefreshSkew() {
+        return tokenRefreshSkew;
+    }
+
+    public void setTokenRefreshSkew(long tokenRefreshSkew) {
+        this.tokenRefreshSkew = tokenRefreshSkew;
+    }
+
+    public void setConnectionTimeout(int connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
     public String getClientId() {
         return clientId;
     }
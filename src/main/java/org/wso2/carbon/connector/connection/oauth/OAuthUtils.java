@@ -42,12 +42,33 @@ public class OAuthUtils {
         OAuthHandler oAuthHandler =
                 getOAuthHandler(connectionConfiguration.getUsername(), connectionConfiguration.getOAuthConfig());
         if (oAuthHandler != null) {
+            // The timeouts of the mail server connection also apply to the token endpoint
+            if (connectionConfiguration.getConnectionTimeout() != null) {
+                oAuthHandler.setConnectionTimeout(Integer.parseInt(connectionConfiguration.getConnectionTimeout()));
+            }
+            if (connectionConfiguration.getReadTimeout() != null) {
+                oAuthHandler.setReadTimeout(Integer.parseInt(connectionConfiguration.getReadTimeout()));
+            }
+            if (connectionConfiguration.getOAuthConfig().getTokenRefreshSkew() != null) {
+                oAuthHandler.setTokenRefreshSkew(connectionConfiguration.getOAuthConfig().getTokenRefreshSkew());
+            }
             return oAuthHandler.generateAccessToken();
         } else {
             throw new EmailConnectionException("An invalid authHandler is returned.");
         }
     }
 
+    /**
+     * Get the cached access-token of the provided tokenID
+     * @param tokenID      Token ID
+     * @param defaultToken Token to be returned if there is no cached token
+     * @return the cached access-token, or the default token if there is none
+     */
+    public static String getCachedAccessToken(String tokenID, String defaultToken) {
+        Token token = TokenCache.getInstance().getTokenObject(tokenID);
+        return token != null ? token.getAccessToken() : defaultToken;
+    }
+
     /**
      * Check if the access-token of the provided tokenID is expired
      * @param tokenID Token ID
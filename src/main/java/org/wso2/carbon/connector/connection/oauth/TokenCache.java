@@ -18,44 +18,208 @@ package org.wso2.carbon.connector.connection.oauth;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
 
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
 
 /**
- * Singleton class to maintain in-memory token cache
+ * Singleton class to maintain in-memory token cache.
+ * <p>
+ * Tokens are refreshed in the background before they expire, so that connections find a valid token in the cache
+ * without requesting one from the token endpoint. At most one request per token ID is made at a time.
  */
 public class TokenCache {
 
-    private static TokenCache tokenCache;
-    private HashMap<String, Token> tokenMap;
+    private static final Log log = LogFactory.getLog(TokenCache.class);
+    private static final TokenCache tokenCache = new TokenCache();
+    // Tokens are cached per connection, hence the limit is only a safeguard against unbounded growth
+    private static final int MAX_TOKENS = 1000;
+    private static final long REFRESH_RETRY_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    private final Map<String, Token> tokenMap = new ConcurrentHashMap<>();
+    private final Map<String, OAuthHandler> handlers = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Token>> pendingRequests = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> scheduledRefreshes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher;
 
     private TokenCache() {
 
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-connector-token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public static TokenCache getInstance() {
-        if (tokenCache == null) {
-            tokenCache = new TokenCache();
-        }
         return tokenCache;
     }
 
     public Token getTokenObject(String id) {
-        return getTokenMap().get(id);
+        return tokenMap.get(id);
     }
 
     public void addToken(String key, Token token) {
-        getTokenMap().put(key, token);
+        if (!tokenMap.containsKey(key) && tokenMap.size() >= MAX_TOKENS) {
+            evictEarliestExpiringToken();
+        }
+        tokenMap.put(key, token);
     }
 
     public void removeToken(String id) {
-        getTokenMap().remove(id);
+        tokenMap.remove(id);
+        handlers.remove(id);
+        ScheduledFuture<?> refresh = scheduledRefreshes.remove(id);
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+    }
+
+    /**
+     * Removes all the tokens and stops refreshing them
+     */
+    public void clear() {
+        for (String id : tokenMap.keySet()) {
+            removeToken(id);
+        }
+    }
+
+    /**
+     * Gets a valid access token of the handler. A token is requested from the token endpoint only if there is no
+     * valid token in the cache, and it is then refreshed in the background before it expires.
+     *
+     * @param handler OAuth handler to request the token with
+     * @return the access token
+     * @throws EmailConnectionException if failed to request the token
+     */
+    String getAccessToken(OAuthHandler handler) throws EmailConnectionException {
+
+        String tokenId = handler.getTokenId();
+        handlers.put(tokenId, handler);
+        Token token = tokenMap.get(tokenId);
+        if (token != null && !isExpired(token)) {
+            return token.getAccessToken();
+        }
+        return requestToken(tokenId, handler).getAccessToken();
+    }
+
+    /**
+     * Requests a token from the token endpoint, joining a request in progress for the same token ID if any
+     *
+     * @param tokenId Token ID
+     * @param handler OAuth handler to request the token with
+     * @return the token
+     * @throws EmailConnectionException if failed to request the token
+     */
+    private Token requestToken(String tokenId, OAuthHandler handler) throws EmailConnectionException {
+
+        CompletableFuture<Token> request = new CompletableFuture<>();
+        CompletableFuture<Token> pendingRequest = pendingRequests.putIfAbsent(tokenId, request);
+        if (pendingRequest != null) {
+            return awaitToken(pendingRequest);
+        }
+        try {
+            Token token = handler.requestAccessToken();
+            addToken(tokenId, token);
+            scheduleRefresh(tokenId, token, handler.getTokenRefreshSkew());
+            request.complete(token);
+            return token;
+        } catch (EmailConnectionException | RuntimeException e) {
+            request.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingRequests.remove(tokenId, request);
+        }
+    }
+
+    private Token awaitToken(CompletableFuture<Token> request) throws EmailConnectionException {
+
+        try {
+            return request.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmailConnectionException("Interrupted while waiting for the access token.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof EmailConnectionException) {
+                throw (EmailConnectionException) e.getCause();
+            }
+            throw new EmailConnectionException("An error occurred while generating access token.", e.getCause());
+        }
+    }
+
+    /**
+     * Schedules the token to be refreshed before it expires. The refresh is done ahead of the expiry by the refresh
+     * skew, but not earlier than half the lifetime of the token.
+     *
+     * @param tokenId     Token ID
+     * @param token       Token to be refreshed
+     * @param refreshSkew Time in milliseconds before the expiry to refresh the token
+     */
+    private void scheduleRefresh(String tokenId, Token token, long refreshSkew) {
+
+        long lifetime = token.getExpiryTime() - System.currentTimeMillis();
+        schedule(tokenId, Math.max(0, lifetime - Math.min(refreshSkew, lifetime / 2)));
     }
 
-    private HashMap<String, Token> getTokenMap() {
-        if (null == tokenMap) {
-            tokenMap = new HashMap<>();
+    private void schedule(String tokenId, long delay) {
+
+        ScheduledFuture<?> refresh = refresher.schedule(() -> refresh(tokenId), delay, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previousRefresh = scheduledRefreshes.put(tokenId, refresh);
+        if (previousRefresh != null) {
+            previousRefresh.cancel(false);
+        }
+    }
+
+    private void refresh(String tokenId) {
+
+        OAuthHandler handler = handlers.get(tokenId);
+        if (handler == null) {
+            return;
         }
-        return tokenMap;
+        try {
+            requestToken(tokenId, handler);
+            if (log.isDebugEnabled()) {
+                log.debug(format("Refreshed access token of %s.", tokenId));
+            }
+        } catch (EmailConnectionException | RuntimeException e) {
+            log.error(format("Failed to refresh access token of %s. Retrying in %d seconds.", tokenId,
+                    TimeUnit.MILLISECONDS.toSeconds(REFRESH_RETRY_INTERVAL)), e);
+            Token token = tokenMap.get(tokenId);
+            if (token != null && !isExpired(token)) {
+                schedule(tokenId, REFRESH_RETRY_INTERVAL);
+            } else {
+                // Requested again when the token is needed next
+                scheduledRefreshes.remove(tokenId);
+            }
+        }
+    }
+
+    private void evictEarliestExpiringToken() {
+
+        String earliest = null;
+        long earliestExpiry = Long.MAX_VALUE;
+        for (Map.Entry<String, Token> entry : tokenMap.entrySet()) {
+            if (entry.getValue().getExpiryTime() < earliestExpiry) {
+                earliest = entry.getKey();
+                earliestExpiry = entry.getValue().getExpiryTime();
+            }
+        }
+        if (earliest != null) {
+            removeToken(earliest);
+        }
+    }
+
+    private static boolean isExpired(Token token) {
+
+        return System.currentTimeMillis() >= token.getExpiryTime();
     }
 }
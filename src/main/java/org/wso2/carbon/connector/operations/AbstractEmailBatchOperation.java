@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.operations;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.apache.commons.lang.StringUtils;
+import org.apache.synapse.MessageContext;
+import org.wso2.carbon.connector.connection.EmailConnectionHandler;
+import org.wso2.carbon.connector.connection.MailBoxConnection;
+import org.wso2.carbon.connector.core.ConnectException;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
+import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+import org.wso2.carbon.connector.utils.AbstractEmailConnectorOperation;
+import org.wso2.carbon.connector.utils.EmailConstants;
+import org.wso2.carbon.connector.utils.EmailUtils;
+import org.wso2.carbon.connector.utils.Error;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.mail.Flags;
+
+import static java.lang.String.format;
+
+/**
+ * Changes the state of multiple emails at once
+ */
+public abstract class AbstractEmailBatchOperation extends AbstractEmailConnectorOperation {
+
+    private static final String COMMA_SEPARATOR = ",";
+
+    /**
+     * @return the flag to be set on the emails
+     */
+    protected abstract Flags.Flag getFlag();
+
+    /**
+     * @return whether the folder should be expunged after setting the flags
+     */
+    protected abstract boolean isExpunge();
+
+    @Override
+    public void execute(MessageContext messageContext, String responseVariable,
+                        Boolean overwriteBody) throws ConnectException {
+
+        String errorString = "Error occurred while changing the state of emails in folder: %s.";
+
+        String folder = (String) getParameter(messageContext, EmailConstants.FOLDER);
+        String emailIds = (String) getParameter(messageContext, EmailConstants.EMAIL_IDS);
+        String uids = (String) getParameter(messageContext, EmailConstants.UIDS);
+        String connectionName = null;
+        EmailConnectionHandler handler = EmailConnectionHandler.getConnectionHandler();
+        MailBoxConnection connection = null;
+        try {
+            List<String> emailIdList = parseList(emailIds);
+            List<Long> uidList = new ArrayList<>();
+            for (String uid : parseList(uids)) {
+                uidList.add(parseUid(uid));
+            }
+            connectionName = EmailUtils.getConnectionName(messageContext);
+            connection = (MailBoxConnection) handler.getConnection(connectionName);
+            Map<String, Boolean> status = EmailUtils.changeEmailStates(connection, folder, emailIdList, uidList,
+                    getFlag(), isExpunge());
+            JsonObject resultJSON = generateOperationResult(messageContext, !status.containsValue(false), null);
+            resultJSON.add("results", createResultJsonArray(status, emailIdList.isEmpty() ? "uid" : "emailId"));
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+        } catch (EmailConnectionException e) {
+            JsonObject resultJSON = generateOperationResult(messageContext, false, Error.CONNECTIVITY);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            handleException(format(errorString, folder), e, messageContext);
+        } catch (InvalidConfigurationException e) {
+            JsonObject resultJSON = generateOperationResult(messageContext, false, Error.INVALID_CONFIGURATION);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            handleException(format(errorString, folder), e, messageContext);
+        } finally {
+            if (connection != null) {
+                handler.returnConnection(connectionName, connection);
+            }
+        }
+    }
+
+    /**
+     * Creates a JSON array containing the status of each email
+     *
+     * @param status Status against the email identifiers
+     * @param key    Name of the email identifier
+     * @return JSON array of statuses
+     */
+    private JsonArray createResultJsonArray(Map<String, Boolean> status, String key) {
+
+        JsonArray resultsArray = new JsonArray();
+        for (Map.Entry<String, Boolean> entry : status.entrySet()) {
+            JsonObject resultObject = new JsonObject();
+            resultObject.addProperty(key, entry.getKey());
+            resultObject.addProperty("success", entry.getValue());
+            resultsArray.add(resultObject);
+        }
+        return resultsArray;
+    }
+
+    /**
+     * Parses a JSON array or a comma separated list of values
+     *
+     * @param value JSON array or comma separated list
+     * @return list of values
+     * @throws InvalidConfigurationException if the JSON array is malformed
+     */
+    private List<String> parseList(String value) throws InvalidConfigurationException {
+
+        List<String> values = new ArrayList<>();
+        if (StringUtils.isBlank(value)) {
+            return values;
+        }
+        value = value.trim();
+        if (value.startsWith("[")) {
+            try {
+                for (JsonElement element : JsonParser.parseString(value).getAsJsonArray()) {
+                    values.add(element.getAsString().trim());
+                }
+            } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+                throw new InvalidConfigurationException(format("Invalid JSON array: %s.", value), e);
+            }
+        } else {
+            for (String item : value.split(COMMA_SEPARATOR)) {
+                if (StringUtils.isNotBlank(item)) {
+                    values.add(item.trim());
+                }
+            }
+        }
+        return values;
+    }
+
+    private long parseUid(String uid) throws InvalidConfigurationException {
+
+        try {
+            return Long.parseLong(uid);
+        } catch (NumberFormatException e) {
+            throw new InvalidConfigurationException(format("Invalid UID: %s.", uid), e);
+        }
+    }
+}
@@ -17,10 +17,13 @@
  */
 package org.wso2.carbon.connector.operations;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.synapse.ManagedLifecycle;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.core.SynapseEnvironment;
+import org.wso2.carbon.connector.connection.EmailConnection;
 import org.wso2.carbon.connector.connection.EmailConnectionHandler;
+import org.wso2.carbon.connector.connection.oauth.TokenCache;
 import org.wso2.carbon.connector.core.AbstractConnector;
 import org.wso2.carbon.connector.core.util.ConnectorUtils;
 import org.wso2.carbon.connector.exception.EmailConnectionException;
@@ -42,6 +45,9 @@ public class EmailConfig extends AbstractConnector implements ManagedLifecycle {
         try {
             ConnectionConfiguration configuration = getConnectionConfigFromContext(messageContext);
             EmailUtils.createConnection(configuration);
+            if (StringUtils.isNotEmpty(configuration.getIdleSequence())) {
+                EmailUtils.startListeners(configuration, messageContext.getEnvironment());
+            }
         } catch (InvalidConfigurationException e) {
             EmailUtils.setErrorsInMessage(messageContext, Error.INVALID_CONFIGURATION);
             handleException("Failed to initiate email configuration.", e, messageContext);
@@ -53,13 +59,16 @@ public class EmailConfig extends AbstractConnector implements ManagedLifecycle {
 
     @Override
     public void init(SynapseEnvironment synapseEnvironment) {
-        // Nothing to do when initiating the connector
+        // Nothing to do when initiating the connector. The connection parameters, including the listeners to be
+        // started, are only available when the connection is initialized by an operation.
     }
 
     @Override
     public void destroy() {
 
         EmailConnectionHandler.getConnectionHandler().shutdownConnectorConnections();
+        TokenCache.getInstance().clear();
+        EmailConnection.clearSessionCache();
     }
 
     /**
@@ -97,6 +106,18 @@ public class EmailConfig extends AbstractConnector implements ManagedLifecycle {
                 EmailConstants.REQUIRE_AUTHENTICATION);
         String enableOAuth2 = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
                 EmailConstants.ENABLE_OAUTH2);
+        String keepFolderOpen = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.KEEP_FOLDER_OPEN);
+        String maxMessagesPerConnection = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.MAX_MESSAGES_PER_CONNECTION);
+        String minIdleConnections = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.MIN_IDLE_CONNECTIONS);
+        String keepAliveInterval = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.KEEP_ALIVE_INTERVAL);
+        String idleSequence = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.IDLE_SEQUENCE);
+        String idleFolders = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.IDLE_FOLDERS);
 
         ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration();
         connectionConfiguration.setHost(host);
@@ -119,6 +140,12 @@ public class EmailConfig extends AbstractConnector implements ManagedLifecycle {
         connectionConfiguration.setTrustedHosts(trustedHosts);
         connectionConfiguration.setSslProtocols(sslProtocols);
         connectionConfiguration.setCipherSuites(cipherSuites);
+        connectionConfiguration.setKeepFolderOpen(keepFolderOpen);
+        connectionConfiguration.setMaxMessagesPerConnection(maxMessagesPerConnection);
+        connectionConfiguration.setMinIdleConnections(minIdleConnections);
+        connectionConfiguration.setKeepAliveInterval(keepAliveInterval);
+        connectionConfiguration.setIdleSequence(idleSequence);
+        connectionConfiguration.setIdleFolders(idleFolders);
         connectionConfiguration.setConfiguration(ConnectorUtils.getPoolConfiguration(messageContext));
 
         return connectionConfiguration;
@@ -138,6 +165,8 @@ public class EmailConfig extends AbstractConnector implements ManagedLifecycle {
                 EmailConstants.TOKEN_URL);
         String scope = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
                 EmailConstants.SCOPE);
+        String tokenRefreshSkew = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.TOKEN_REFRESH_SKEW);
         String tokenId = EmailUtils.getTokenID(connectionName);
         OAuthConfig oAuthConfig = new OAuthConfig();
         oAuthConfig.setGrantType(grantType);
@@ -147,6 +176,7 @@ public class EmailConfig extends AbstractConnector implements ManagedLifecycle {
         oAuthConfig.setTokenUrl(tokenUrl);
         oAuthConfig.setScope(scope);
         oAuthConfig.setTokenId(tokenId);
+        oAuthConfig.setTokenRefreshSkew(tokenRefreshSkew);
         return oAuthConfig;
     }
 }
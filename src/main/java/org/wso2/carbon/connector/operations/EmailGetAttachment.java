@@ -32,15 +32,15 @@ import org.wso2.carbon.connector.exception.EmailConnectionException;
 import org.wso2.carbon.connector.exception.EmailParsingException;
 import org.wso2.carbon.connector.exception.InvalidConfigurationException;
 import org.wso2.carbon.connector.pojo.Attachment;
-import org.wso2.carbon.connector.pojo.EmailMessage;
 import org.wso2.carbon.connector.utils.AbstractEmailConnectorOperation;
 import org.wso2.carbon.connector.utils.EmailConstants;
 import org.wso2.carbon.connector.utils.EmailUtils;
 import org.wso2.carbon.connector.utils.Error;
 import org.wso2.carbon.connector.utils.ResponseConstants;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import static java.lang.String.format;
@@ -63,12 +63,13 @@ public class EmailGetAttachment extends AbstractEmailConnectorOperation {
         String connectionName = null;
         EmailConnectionHandler handler = EmailConnectionHandler.getConnectionHandler();
         MailBoxConnection connection = null;
-        EmailMessage emailMessage = null;
+        Attachment attachment = null;
         try {
             connectionName = EmailUtils.getConnectionName(messageContext);
             connection = (MailBoxConnection) handler.getConnection(connectionName);
-            emailMessage = EmailUtils.getEmail(connection, emailId, folder);
-
+            if (emailId != null && attachmentIndex != null) {
+                attachment = EmailUtils.getEmailAttachment(connection, emailId, folder, attachmentIndex);
+            }
         } catch (InvalidConfigurationException e) {
             JsonObject resultJSON = generateErrorResult(messageContext, Error.INVALID_CONFIGURATION);
             handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
@@ -81,10 +82,14 @@ public class EmailGetAttachment extends AbstractEmailConnectorOperation {
             JsonObject resultJSON = generateErrorResult(messageContext, Error.CONNECTIVITY);
             handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
             handleException(ERROR, e, messageContext);
+        } finally {
+            if (connection != null) {
+                handler.returnConnection(connectionName, connection);
+            }
         }
 
-        if (emailId != null && attachmentIndex != null && emailMessage != null) {
-            setAttachment(messageContext, attachmentIndex, emailMessage, responseVariable, overwriteBody);
+        if (emailId != null && attachmentIndex != null && attachment != null) {
+            setAttachment(messageContext, attachmentIndex, attachment, responseVariable, overwriteBody);
         } else if (emailId == null) {
             JsonObject resultJSON = generateOperationResult(messageContext, false, Error.INVALID_CONFIGURATION);
             handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
@@ -103,37 +108,45 @@ public class EmailGetAttachment extends AbstractEmailConnectorOperation {
     /**
      * Set attachment in body
      *
-     * @param messageContext  Message Context
-     * @param emailId      Email Index
-     * @param attachmentIndex Attachment Index
-     * @param emailMessages   List of emails
+     * @param messageContext   Message Context
+     * @param attachmentIndex  Attachment Index
+     * @param attachment       Attachment to be set
      * @param responseVariable The variable to store the response
-     * @param overwriteBody   Whether to overwrite the body
+     * @param overwriteBody    Whether to overwrite the body
      */
     private void setAttachment(MessageContext messageContext, String attachmentIndex,
-                               EmailMessage emailMessage, String responseVariable, Boolean overwriteBody) {
+                               Attachment attachment, String responseVariable, Boolean overwriteBody) {
 
         if (log.isDebugEnabled()) {
             log.debug(format("Retrieving email attachment at index %s...", attachmentIndex));
         }
         try {
-            Attachment attachment = EmailUtils.getEmailAttachment(emailMessage, attachmentIndex);
             if (overwriteBody != null && overwriteBody) {
                 buildRawResponse(messageContext, attachment);
             } else {
                 messageContext.setVariable(responseVariable, buildJSONResponse(attachment));
             }
-        } catch (InvalidConfigurationException e) {
-            JsonObject resultJSON = generateErrorResult(messageContext, Error.INVALID_CONFIGURATION);
-            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
-            handleException(ERROR, e, messageContext);
         } catch (ContentBuilderException e) {
+            // Deletes the temporary file of the content, if any, as the content is not going to be read
+            try {
+                attachment.getContent().close();
+            } catch (IOException closeException) {
+                log.warn("Error occurred while closing the attachment content.", closeException);
+            }
             JsonObject resultJSON = generateErrorResult(messageContext, Error.RESPONSE_GENERATION);
             handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
             handleException("Error occurred during setting attachment content.", e, messageContext);
         }
     }
 
+    /**
+     * Builds a JSON response containing the Base64 encoded content of the attachment. The encoded content is held in
+     * memory as a whole, hence the raw response should be used for large attachments.
+     *
+     * @param attachment Attachment to be set
+     * @return the response
+     * @throws ContentBuilderException if failed to encode the content
+     */
     private ConnectorResponse buildJSONResponse(Attachment attachment) throws ContentBuilderException {
         ConnectorResponse response = new DefaultConnectorResponse();
 
@@ -146,7 +159,12 @@ public class EmailGetAttachment extends AbstractEmailConnectorOperation {
         attributes.put(ResponseConstants.ATTACHMENT_TYPE, attachment.getContentType());
 
         // Convert attachment content (InputStream) to Base64 string for JSON
-        String base64Content = EmailUtils.convertInputStreamToBase64(attachment.getContent());
+        String base64Content;
+        try (InputStream content = attachment.getContent()) {
+            base64Content = EmailUtils.convertInputStreamToBase64(content);
+        } catch (IOException e) {
+            throw new ContentBuilderException("Error while closing the attachment content", e);
+        }
         payload.addProperty(ResponseConstants.BASE64_ENCODED, base64Content);
 
         // Setting the base64 encoded attachment content to the response
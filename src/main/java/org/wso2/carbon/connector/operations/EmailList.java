@@ -17,8 +17,10 @@
  */
 package org.wso2.carbon.connector.operations;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.internal.bind.JsonTreeWriter;
+import com.google.gson.stream.JsonWriter;
+import com.sun.mail.imap.IMAPFolder;
 import org.apache.commons.lang.StringUtils;
 import org.apache.synapse.MessageContext;
 import org.wso2.carbon.connector.connection.MailBoxConnection;
@@ -30,22 +32,44 @@ import org.wso2.carbon.connector.exception.EmailParsingException;
 import org.wso2.carbon.connector.exception.InvalidConfigurationException;
 import org.wso2.carbon.connector.pojo.Attachment;
 import org.wso2.carbon.connector.pojo.EmailMessage;
+import org.wso2.carbon.connector.pojo.EmailPage;
+import org.wso2.carbon.connector.pojo.LazyEmailMessage;
 import org.wso2.carbon.connector.pojo.MailboxConfiguration;
+import org.wso2.carbon.connector.pojo.PageCursor;
 import org.wso2.carbon.connector.utils.AbstractEmailConnectorOperation;
 import org.wso2.carbon.connector.utils.EmailConstants;
 import org.wso2.carbon.connector.utils.EmailUtils;
 import org.wso2.carbon.connector.utils.Error;
+import org.wso2.carbon.connector.utils.ParallelMessageParser;
 import org.wso2.carbon.connector.utils.ResponseConstants;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.mail.FetchProfile;
 import javax.mail.Flags;
 import javax.mail.Folder;
 import javax.mail.Message;
 import javax.mail.MessagingException;
+import javax.mail.UIDFolder;
 import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
@@ -65,6 +89,24 @@ import static java.util.Date.from;
  */
 public class EmailList extends AbstractEmailConnectorOperation {
 
+    private static final int MAX_FOLDER_LISTING_THREADS = 16;
+    // Minimum number of messages searched at a time when a page of filtered messages is retrieved
+    private static final int MIN_SEARCH_WINDOW = 256;
+    // States of a folder listing task
+    private static final int TASK_WAITING = 0;
+    private static final int TASK_LISTING = 1;
+    private static final int TASK_CANCELLED = 2;
+    // Orders messages by received date, placing the messages without a date first
+    private static final Comparator<EmailMessage> RECEIVED_DATE_ORDER = Comparator.comparing(
+            EmailMessage::getReceivedDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+    // Lists folders in parallel when multiple folders are listed
+    private static final ExecutorService FOLDER_LISTING_EXECUTOR = new ThreadPoolExecutor(0,
+            MAX_FOLDER_LISTING_THREADS, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "email-connector-folder-lister");
+                thread.setDaemon(true);
+                return thread;
+            });
+
     @Override
     public void execute(MessageContext messageContext, String responseVariable,
                         Boolean overwriteBody) throws ConnectException {
@@ -76,15 +118,26 @@ public class EmailList extends AbstractEmailConnectorOperation {
         MailBoxConnection connection = null;
         try {
             connectionName = EmailUtils.getConnectionName(messageContext);
-            connection = (MailBoxConnection) handler.getConnection(connectionName);
             MailboxConfiguration mailboxConfiguration = getMailboxConfigFromContext(messageContext);
-            folderName = mailboxConfiguration.getFolder();
-            List<EmailMessage> messageList = retrieveMessages(connection, mailboxConfiguration);
+            EmailPage emailPage;
+            if (mailboxConfiguration.getFolders().size() > 1) {
+                folderName = String.join(",", mailboxConfiguration.getFolders());
+                emailPage = retrieveMessages(handler, connectionName, mailboxConfiguration);
+            } else {
+                folderName = mailboxConfiguration.getFolder();
+                connection = (MailBoxConnection) handler.getConnection(connectionName);
+                emailPage = retrieveMessages(connection, mailboxConfiguration, folderName,
+                        mailboxConfiguration.getOffset(), mailboxConfiguration.getLimit());
+            }
+            List<EmailMessage> messageList = emailPage.getEmails();
             messageContext.setProperty(ResponseConstants.PROPERTY_EMAILS, messageList);
-            JsonObject resultJSON = new JsonObject();
-            JsonArray emailsArray = createEmailJsonArray(messageList);
-            resultJSON.add("emails", emailsArray);
-            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            if (overwriteBody != null && overwriteBody) {
+                // The emails are written to the body one at a time as it is read, instead of building a JSON tree
+                setJsonPayload(messageContext, new EmailPageWriter(emailPage));
+            } else {
+                JsonObject resultJSON = createEmailPageJson(emailPage);
+                handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            }
             
         } catch (EmailConnectionException e) {
             JsonObject resultJSON = generateErrorResult(messageContext, Error.CONNECTIVITY);
@@ -106,44 +159,90 @@ public class EmailList extends AbstractEmailConnectorOperation {
     }
 
     /**
-     * Creates a JSON array of email messages
+     * Creates the JSON of a page of email messages, in the same format as the body written by {@link EmailPageWriter}
      *
-     * @param emailMessages List of emails
-     * @return JSON array of email information
+     * @param emailPage Page of emails
+     * @return JSON object of the page
+     * @throws EmailParsingException if failed to write the emails
      */
-    private JsonArray createEmailJsonArray(List<EmailMessage> emailMessages) {
-        JsonArray emailsArray = new JsonArray();
-        
-        for (int i = 0; i < emailMessages.size(); i++) {
-            EmailMessage emailMessage = emailMessages.get(i);
-            JsonObject emailObject = new JsonObject();
-            
-            emailObject.addProperty("index", i);
-            emailObject.addProperty("emailId", emailMessage.getEmailId());
-            emailObject.addProperty("to", emailMessage.getTo());
-            emailObject.addProperty("from", emailMessage.getFrom());
-            emailObject.addProperty("cc", emailMessage.getCc());
-            emailObject.addProperty("bcc", emailMessage.getBcc());
-            emailObject.addProperty("replyTo", emailMessage.getReplyTo());
-            emailObject.addProperty("subject", emailMessage.getSubject());
-            
+    private static JsonObject createEmailPageJson(EmailPage emailPage) throws EmailParsingException {
+
+        JsonTreeWriter treeWriter = new JsonTreeWriter();
+        EmailPageWriter pageWriter = new EmailPageWriter(emailPage);
+        try {
+            while (pageWriter.writeNext(treeWriter)) {
+                // Writes the emails one after the other
+            }
+        } catch (IOException e) {
+            throw new EmailParsingException("Error occurred while generating the email list.", e);
+        }
+        return treeWriter.get().getAsJsonObject();
+    }
+
+    /**
+     * Writes a page of email messages as JSON, one email at a time
+     */
+    private static class EmailPageWriter implements JsonPayloadWriter {
+
+        private final EmailPage emailPage;
+        // Index of the next email to be written, or -1 if the beginning of the page is not written yet
+        private int index = -1;
+
+        EmailPageWriter(EmailPage emailPage) {
+
+            this.emailPage = emailPage;
+        }
+
+        @Override
+        public boolean writeNext(JsonWriter writer) throws IOException {
+
+            List<EmailMessage> emailMessages = emailPage.getEmails();
+            if (index == -1) {
+                writer.beginObject();
+                writer.name("emails").beginArray();
+            } else if (index < emailMessages.size()) {
+                writeEmail(writer, index, emailMessages.get(index));
+            } else {
+                writer.endArray();
+                if (emailPage.getNextCursor() != null) {
+                    writer.name("nextCursor").value(emailPage.getNextCursor());
+                }
+                writer.endObject();
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        private static void writeEmail(JsonWriter writer, int index, EmailMessage emailMessage) throws IOException {
+
+            writer.beginObject();
+            writer.name("index").value(index);
+            writer.name("emailId").value(emailMessage.getEmailId());
+            writer.name("to").value(emailMessage.getTo());
+            writer.name("from").value(emailMessage.getFrom());
+            writer.name("cc").value(emailMessage.getCc());
+            writer.name("bcc").value(emailMessage.getBcc());
+            writer.name("replyTo").value(emailMessage.getReplyTo());
+            writer.name("subject").value(emailMessage.getSubject());
+            if (emailMessage.getFolder() != null) {
+                writer.name("folder").value(emailMessage.getFolder());
+            }
+
             if (emailMessage.getAttachments() != null && !emailMessage.getAttachments().isEmpty()) {
-                JsonArray attachmentsArray = new JsonArray();
+                writer.name("attachments").beginArray();
                 for (int j = 0; j < emailMessage.getAttachments().size(); j++) {
                     Attachment attachment = emailMessage.getAttachments().get(j);
-                    JsonObject attachmentObject = new JsonObject();
-                    attachmentObject.addProperty("index", j);
-                    attachmentObject.addProperty("name", attachment.getName());
-                    attachmentObject.addProperty("contentType", attachment.getContentType());
-                    attachmentsArray.add(attachmentObject);
+                    writer.beginObject();
+                    writer.name("index").value(j);
+                    writer.name("name").value(attachment.getName());
+                    writer.name("contentType").value(attachment.getContentType());
+                    writer.endObject();
                 }
-                emailObject.add("attachments", attachmentsArray);
+                writer.endArray();
             }
-            
-            emailsArray.add(emailObject);
+            writer.endObject();
         }
-        
-        return emailsArray;
     }
 
     /**
@@ -168,19 +267,88 @@ public class EmailList extends AbstractEmailConnectorOperation {
         return messagesList;
     }
 
+    /**
+     * Gets email content and attachments, optionally parsing the messages in parallel
+     *
+     * @param messages List of messages to be parsed
+     * @param parallel Whether to parse the messages on the shared message parsing threads
+     * @return Parsed messages
+     * @throws EmailParsingException if failed to parse content
+     */
+    public static List<EmailMessage> parseMessageList(List<Message> messages, boolean parallel)
+            throws EmailParsingException {
+
+        if (parallel && messages.size() > 1) {
+            return ParallelMessageParser.parse(messages);
+        }
+        return parseMessageList(messages);
+    }
+
+    /**
+     * Gets the headers and the attachment information of the messages without downloading the content.
+     * <p>
+     * The envelope, flags, UID and body structure of all the messages are prefetched in a single request and the
+     * emails are built from the prefetched information. The content of the IMAP emails is fetched only when it is
+     * requested from the returned emails.
+     *
+     * @param connectionName Name of the connection the messages were retrieved with
+     * @param mailbox        Folder containing the messages
+     * @param messages       List of messages to be parsed
+     * @return Parsed messages
+     * @throws EmailParsingException if failed to read the message headers
+     * @throws MessagingException    if failed to fetch the message headers
+     */
+    public static List<EmailMessage> parseMessageHeaders(String connectionName, Folder mailbox,
+                                                         List<Message> messages)
+            throws EmailParsingException, MessagingException {
+
+        FetchProfile fetchProfile = new FetchProfile();
+        fetchProfile.add(FetchProfile.Item.ENVELOPE);
+        fetchProfile.add(FetchProfile.Item.FLAGS);
+        fetchProfile.add(FetchProfile.Item.CONTENT_INFO);
+        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+
+        List<EmailMessage> messagesList = new ArrayList<>();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(javax.mail.Message.class.getClassLoader());
+            mailbox.fetch(messages.toArray(new Message[0]), fetchProfile);
+            for (Message message : messages) {
+                if (mailbox instanceof IMAPFolder) {
+                    messagesList.add(new LazyEmailMessage(connectionName, (IMAPFolder) mailbox,
+                            (MimeMessage) message));
+                } else {
+                    messagesList.add(EmailMessage.fromEnvelope((MimeMessage) message));
+                }
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(classLoader);
+        }
+        return messagesList;
+    }
+
     /**
      * Retrieves messages that matches given filtering criteria
+     * <p>
+     * When no filters are applied only the requested window of messages is retrieved from the folder using message
+     * sequence numbers. Otherwise, the folder is searched in windows of message sequence numbers until the requested
+     * page is filled, instead of searching the whole folder. When a cursor is given (IMAP only), the listing continues
+     * after the last email of the previous page irrespective of the emails that arrived or got removed in between.
      *
      * @param connection           Mailbox connection to be used
      * @param mailboxConfiguration Mailbox Configurations
+     * @param folderName           Name of the folder to retrieve the messages from
+     * @param offset               Number of matching messages to skip
+     * @param limit                Maximum number of messages to be retrieved, or -1 to retrieve all
      */
-    private List<EmailMessage> retrieveMessages(MailBoxConnection connection, MailboxConfiguration mailboxConfiguration)
-            throws EmailConnectionException, EmailParsingException {
+    private EmailPage retrieveMessages(MailBoxConnection connection, MailboxConfiguration mailboxConfiguration,
+                                       String folderName, int offset, int limit)
+            throws EmailConnectionException, EmailParsingException, InvalidConfigurationException {
 
         List<EmailMessage> messageList;
+        String nextCursor = null;
         boolean deleteAfterRetrieval = mailboxConfiguration.getDeleteAfterRetrieve();
         try {
-            String folderName = mailboxConfiguration.getFolder();
             Folder mailbox;
             if (deleteAfterRetrieval) {
                 mailbox = connection.getFolder(folderName, Folder.READ_WRITE);
@@ -190,21 +358,365 @@ public class EmailList extends AbstractEmailConnectorOperation {
             if (log.isDebugEnabled()) {
                 log.debug(format("Retrieving messages from Mail folder: %s ...", folderName));
             }
+            int start = 1;
+            if (mailboxConfiguration.getCursor() != null) {
+                if (!(mailbox instanceof IMAPFolder)) {
+                    throw new InvalidConfigurationException("Cursor based pagination is supported only for IMAP.");
+                }
+                start = getMessageNumberAfterCursor((IMAPFolder) mailbox,
+                        PageCursor.decode(mailboxConfiguration.getCursor()));
+                offset = 0;
+            }
+            int messageCount = mailbox.getMessageCount();
             SearchTerm searchTerm = getSearchTerm(mailboxConfiguration, mailbox);
-            Message[] messages;
-            if (searchTerm != null) {
-                messages = mailbox.search(getSearchTerm(mailboxConfiguration, mailbox));
+            List<Message> paginatedMessages;
+            boolean hasMoreMessages;
+            if (start > messageCount || (searchTerm == null && (long) start + offset > messageCount)) {
+                paginatedMessages = Collections.emptyList();
+                hasMoreMessages = false;
+            } else if (searchTerm != null) {
+                Message[] messages = searchMessages(mailbox, searchTerm, start, messageCount, offset, limit);
+                paginatedMessages = getPaginatedMessages(messages, offset, limit, deleteAfterRetrieval);
+                hasMoreMessages = limit != -1 && offset + limit < messages.length;
+            } else {
+                // Without filters, each message is a match. Hence, the offset is a number of messages to skip.
+                start += offset;
+                int end = messageCount;
+                if (limit != -1) {
+                    end = Math.min(messageCount, start + limit - 1);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug(format("Retrieving messages from message number %d to %d ...", start, end));
+                }
+                paginatedMessages = Arrays.asList(mailbox.getMessages(start, end));
+                if (deleteAfterRetrieval) {
+                    markMessagesAsDeleted(paginatedMessages.toArray(new Message[0]), 0, paginatedMessages.size());
+                }
+                hasMoreMessages = end < messageCount;
+            }
+            if (hasMoreMessages && !paginatedMessages.isEmpty() && mailbox instanceof IMAPFolder) {
+                IMAPFolder imapFolder = (IMAPFolder) mailbox;
+                Message lastMessage = paginatedMessages.get(paginatedMessages.size() - 1);
+                nextCursor = new PageCursor(imapFolder.getUIDValidity(), imapFolder.getUID(lastMessage)).encode();
+            }
+            if (mailboxConfiguration.getHeadersOnly() && mailbox instanceof IMAPFolder) {
+                messageList = parseMessageHeaders(connection.getConnectionName(), mailbox, paginatedMessages);
             } else {
-                messages = mailbox.getMessages();
+                messageList = parseMessageList(paginatedMessages, mailboxConfiguration.getParallelParsing());
             }
-            messageList = parseMessageList(getPaginatedMessages(messages,
-                    mailboxConfiguration.getOffset(), mailboxConfiguration.getLimit(), deleteAfterRetrieval));
+            EmailUtils.indexMessages(connection, mailbox, paginatedMessages, messageList);
         } catch (MessagingException e) {
             throw new EmailConnectionException("Error occurred when searching emails. %s", e);
         } finally {
             connection.closeFolder(deleteAfterRetrieval);
         }
-        return messageList;
+        return new EmailPage(messageList, nextCursor);
+    }
+
+    /**
+     * Searches the messages from the given message number onwards, in windows of message sequence numbers which double
+     * in size, until offset + limit + 1 matches are found. The additional match tells whether there are more messages
+     * after the page. Only the windows are searched on the server, so that a page of a large folder does not cost a
+     * search of the whole folder.
+     *
+     * @param mailbox      Opened folder
+     * @param searchTerm   Filters of the messages
+     * @param start        Message number to start searching from
+     * @param messageCount Number of messages in the folder
+     * @param offset       Number of matching messages to skip
+     * @param limit        Maximum number of messages to be retrieved, or -1 to retrieve all
+     * @return the matching messages in the order of their message numbers, which contain the requested page
+     * @throws MessagingException if failed to search the messages
+     */
+    private Message[] searchMessages(Folder mailbox, SearchTerm searchTerm, int start, int messageCount, int offset,
+                                     int limit) throws MessagingException {
+
+        if (limit == -1) {
+            return start > 1 ? mailbox.search(searchTerm, mailbox.getMessages(start, messageCount))
+                    : mailbox.search(searchTerm);
+        }
+        long requiredMatches = (long) offset + limit + 1;
+        long windowSize = Math.max(requiredMatches, MIN_SEARCH_WINDOW);
+        List<Message> matches = new ArrayList<>();
+        int from = start;
+        while (from <= messageCount && matches.size() < requiredMatches) {
+            int to = (int) Math.min(messageCount, from + windowSize - 1);
+            if (log.isDebugEnabled()) {
+                log.debug(format("Searching messages from message number %d to %d ...", from, to));
+            }
+            matches.addAll(Arrays.asList(mailbox.search(searchTerm, mailbox.getMessages(from, to))));
+            from = to + 1;
+            windowSize *= 2;
+        }
+        return matches.toArray(new Message[0]);
+    }
+
+    /**
+     * Retrieves the messages of multiple folders that match the given filtering criteria, merged by received date.
+     * <p>
+     * The folders are listed in parallel over the connections which are idle in the pool at the time. The calling
+     * thread lists folders as well, so that all the folders are listed even if no other connection is available. Once
+     * the calling thread finds no more folders to list, the workers which have not started listing are cancelled, so
+     * that the calling thread does not wait for workers which are still waiting for a connection. As the offset and
+     * the limit apply to the merged messages, each folder contributes at most offset + limit messages.
+     *
+     * @param handler              Connection handler to borrow the connections from
+     * @param connectionName       Name of the connection
+     * @param mailboxConfiguration Mailbox Configurations
+     */
+    private EmailPage retrieveMessages(EmailConnectionHandler handler, String connectionName,
+                                       MailboxConfiguration mailboxConfiguration)
+            throws EmailConnectionException, EmailParsingException, InvalidConfigurationException, ConnectException {
+
+        if (mailboxConfiguration.getDeleteAfterRetrieve()) {
+            throw new InvalidConfigurationException("Deleting emails after retrieval is not supported when listing " +
+                    "multiple folders.");
+        }
+        if (mailboxConfiguration.getCursor() != null) {
+            throw new InvalidConfigurationException("Cursor based pagination is not supported when listing " +
+                    "multiple folders.");
+        }
+        List<String> folders = mailboxConfiguration.getFolders();
+        int offset = mailboxConfiguration.getOffset();
+        int limit = mailboxConfiguration.getLimit();
+        int folderLimit = limit == -1 ? -1 : offset + limit;
+        AtomicReferenceArray<List<EmailMessage>> results = new AtomicReferenceArray<>(folders.size());
+        Queue<Integer> pendingFolders = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < folders.size(); i++) {
+            pendingFolders.add(i);
+        }
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        // The connection of the calling thread is borrowed first, so that the listing does not fail if the other
+        // connections of the pool are in use
+        MailBoxConnection connection = (MailBoxConnection) handler.getConnection(connectionName);
+        try {
+            // Only the connections which are idle are used, so that the workers do not hold up the other requests
+            // waiting for connections
+            int parallelism = Math.min(folders.size(), 1 + handler.getIdleConnections(connectionName));
+            List<FolderListingTask> tasks = new ArrayList<>();
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int i = 1; i < parallelism; i++) {
+                FolderListingTask task = new FolderListingTask(handler, connectionName, mailboxConfiguration,
+                        pendingFolders, results, folderLimit, classLoader);
+                try {
+                    workers.add(FOLDER_LISTING_EXECUTOR.submit(task));
+                    tasks.add(task);
+                } catch (RejectedExecutionException e) {
+                    // All the listing threads are busy. Hence, the remaining folders are listed by the started
+                    // workers and the calling thread.
+                    break;
+                }
+            }
+            try {
+                listFolders(connection, mailboxConfiguration, pendingFolders, results, folderLimit);
+            } finally {
+                // No folders are pending. Hence, the workers which have not started listing have nothing to list.
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (tasks.get(i).cancelIfNotListing()) {
+                        workers.get(i).cancel(true);
+                    }
+                }
+            }
+            for (Future<Void> worker : workers) {
+                if (worker.isCancelled()) {
+                    continue;
+                }
+                try {
+                    worker.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new EmailConnectionException("Interrupted while listing folders.", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof EmailConnectionException) {
+                        throw (EmailConnectionException) cause;
+                    } else if (cause instanceof EmailParsingException) {
+                        throw (EmailParsingException) cause;
+                    } else if (cause instanceof InvalidConfigurationException) {
+                        throw (InvalidConfigurationException) cause;
+                    }
+                    throw new EmailConnectionException("Error occurred while listing folders.", cause);
+                }
+            }
+        } finally {
+            handler.returnConnection(connectionName, connection);
+        }
+
+        List<List<EmailMessage>> folderMessages = new ArrayList<>(folders.size());
+        for (int i = 0; i < folders.size(); i++) {
+            folderMessages.add(results.get(i));
+        }
+        return new EmailPage(mergeByReceivedDate(folderMessages, offset, limit), null);
+    }
+
+    /**
+     * Borrows a connection and lists the pending folders over it, on a folder listing thread. If no connection is
+     * available, the folders are left to be listed by the other threads.
+     */
+    private class FolderListingTask implements Callable<Void> {
+
+        private final EmailConnectionHandler handler;
+        private final String connectionName;
+        private final MailboxConfiguration mailboxConfiguration;
+        private final Queue<Integer> pendingFolders;
+        private final AtomicReferenceArray<List<EmailMessage>> results;
+        private final int folderLimit;
+        private final ClassLoader classLoader;
+        // Whether the task has started listing folders or has been cancelled before that
+        private final AtomicInteger state = new AtomicInteger(TASK_WAITING);
+
+        FolderListingTask(EmailConnectionHandler handler, String connectionName,
+                          MailboxConfiguration mailboxConfiguration, Queue<Integer> pendingFolders,
+                          AtomicReferenceArray<List<EmailMessage>> results, int folderLimit, ClassLoader classLoader) {
+
+            this.handler = handler;
+            this.connectionName = connectionName;
+            this.mailboxConfiguration = mailboxConfiguration;
+            this.pendingFolders = pendingFolders;
+            this.results = results;
+            this.folderLimit = folderLimit;
+            this.classLoader = classLoader;
+        }
+
+        /**
+         * Cancels the task unless it has started listing folders
+         *
+         * @return true if the task has not started listing folders and will not, false otherwise
+         */
+        boolean cancelIfNotListing() {
+
+            return state.compareAndSet(TASK_WAITING, TASK_CANCELLED);
+        }
+
+        @Override
+        public Void call() throws EmailConnectionException, EmailParsingException, InvalidConfigurationException {
+
+            if (pendingFolders.isEmpty()) {
+                return null;
+            }
+            MailBoxConnection connection;
+            try {
+                connection = (MailBoxConnection) handler.getConnection(connectionName);
+            } catch (EmailConnectionException | ConnectException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug(format("No connection available to list folders in parallel for connection: %s.",
+                            connectionName));
+                }
+                return null;
+            }
+            ClassLoader workerClassLoader = Thread.currentThread().getContextClassLoader();
+            try {
+                if (state.compareAndSet(TASK_WAITING, TASK_LISTING)) {
+                    Thread.currentThread().setContextClassLoader(classLoader);
+                    listFolders(connection, mailboxConfiguration, pendingFolders, results, folderLimit);
+                }
+            } finally {
+                Thread.currentThread().setContextClassLoader(workerClassLoader);
+                handler.returnConnection(connectionName, connection);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Lists the pending folders one after the other over the given connection, until no folders are pending
+     *
+     * @param connection           Mailbox connection to be used
+     * @param mailboxConfiguration Mailbox Configurations
+     * @param pendingFolders       Indexes of the folders yet to be listed
+     * @param results              Messages of each folder, sorted by received date
+     * @param folderLimit          Maximum number of messages to be retrieved from a folder
+     */
+    private void listFolders(MailBoxConnection connection, MailboxConfiguration mailboxConfiguration,
+                             Queue<Integer> pendingFolders, AtomicReferenceArray<List<EmailMessage>> results,
+                             int folderLimit)
+            throws EmailConnectionException, EmailParsingException, InvalidConfigurationException {
+
+        try {
+            Integer index;
+            while ((index = pendingFolders.poll()) != null) {
+                String folderName = mailboxConfiguration.getFolders().get(index);
+                List<EmailMessage> emails = new ArrayList<>(retrieveMessages(connection, mailboxConfiguration,
+                        folderName, 0, folderLimit).getEmails());
+                for (EmailMessage email : emails) {
+                    email.setFolder(folderName);
+                }
+                emails.sort(RECEIVED_DATE_ORDER);
+                results.set(index, emails);
+            }
+        } catch (EmailConnectionException | EmailParsingException | InvalidConfigurationException e) {
+            // Stops the other threads from listing the remaining folders
+            pendingFolders.clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Merges the messages of multiple folders by received date, and returns the messages within the offset and
+     * the limit of the merged messages
+     *
+     * @param folderMessages Messages of each folder, sorted by received date
+     * @param offset         Number of merged messages to skip
+     * @param limit          Maximum number of messages to be returned, or -1 to return all
+     * @return merged messages
+     */
+    static List<EmailMessage> mergeByReceivedDate(List<List<EmailMessage>> folderMessages, int offset,
+                                                  int limit) {
+
+        // Each entry points to the next message of a folder, as {folder index, message index}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, folderMessages.size()), (first, second) -> {
+            int order = RECEIVED_DATE_ORDER.compare(folderMessages.get(first[0]).get(first[1]),
+                    folderMessages.get(second[0]).get(second[1]));
+            return order != 0 ? order : Integer.compare(first[0], second[0]);
+        });
+        for (int i = 0; i < folderMessages.size(); i++) {
+            if (!folderMessages.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        long end = limit == -1 ? Long.MAX_VALUE : (long) offset + limit;
+        List<EmailMessage> merged = new ArrayList<>();
+        for (long position = 0; position < end && !heads.isEmpty(); position++) {
+            int[] head = heads.poll();
+            List<EmailMessage> messages = folderMessages.get(head[0]);
+            if (position >= offset) {
+                merged.add(messages.get(head[1]));
+            }
+            if (++head[1] < messages.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Resolves the message number of the first message after the message the cursor points to
+     *
+     * @param mailbox IMAP folder
+     * @param cursor  Cursor returned with the previous page
+     * @return message number of the first message after the cursor, or message count + 1 if there are no messages
+     * @throws InvalidConfigurationException if the folder has been recreated after the cursor was issued
+     * @throws MessagingException            if failed to resolve the UIDs
+     */
+    private int getMessageNumberAfterCursor(IMAPFolder mailbox, PageCursor cursor)
+            throws InvalidConfigurationException, MessagingException {
+
+        if (mailbox.getUIDValidity() != cursor.getUidValidity()) {
+            throw new InvalidConfigurationException(format("The cursor is no longer valid for folder: %s. " +
+                    "Retrieve the emails again without a cursor.", mailbox.getFullName()));
+        }
+        Message lastMessage = mailbox.getMessageByUID(cursor.getLastUid());
+        if (lastMessage != null) {
+            return lastMessage.getMessageNumber() + 1;
+        }
+        // The last message of the previous page has been removed. Hence, find the first message with a higher UID.
+        for (Message message : mailbox.getMessagesByUID(cursor.getLastUid() + 1, UIDFolder.LASTUID)) {
+            if (message != null && mailbox.getUID(message) > cursor.getLastUid()) {
+                return message.getMessageNumber();
+            }
+        }
+        return mailbox.getMessageCount() + 1;
     }
 
     /**
@@ -388,11 +900,33 @@ public class EmailList extends AbstractEmailConnectorOperation {
                 EmailConstants.OFFSET);
         String limit = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
                 EmailConstants.LIMIT);
+        String headersOnly = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.HEADERS_ONLY);
+        String cursor = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.CURSOR);
+        String folders = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.FOLDERS);
+        String parallelParsing = (String) ConnectorUtils.lookupTemplateParamater(messageContext,
+                EmailConstants.PARALLEL_PARSING);
 
         if (StringUtils.isEmpty(folder)) {
             folder = EmailConstants.DEFAULT_FOLDER;
         }
 
+        List<String> folderList = new ArrayList<>();
+        if (StringUtils.isNotBlank(folders)) {
+            for (String folderName : folders.split(",")) {
+                if (StringUtils.isNotBlank(folderName) && !folderList.contains(folderName.trim())) {
+                    folderList.add(folderName.trim());
+                }
+            }
+        }
+        if (folderList.size() == 1) {
+            folder = folderList.get(0);
+        } else if (folderList.isEmpty()) {
+            folderList.add(folder);
+        }
+
         boolean seenFlag = true;
         if (seen != null) {
             seenFlag = Boolean.parseBoolean(seen);
@@ -425,6 +959,7 @@ public class EmailList extends AbstractEmailConnectorOperation {
 
         MailboxConfiguration mailboxConfiguration = new MailboxConfiguration();
         mailboxConfiguration.setFolder(folder);
+        mailboxConfiguration.setFolders(folderList);
         mailboxConfiguration.setDeleteAfterRetrieve(Boolean.parseBoolean(deleteAfterRetrieve));
         mailboxConfiguration.setSeen(seenFlag);
         mailboxConfiguration.setAnswered(answeredFlag);
@@ -438,6 +973,11 @@ public class EmailList extends AbstractEmailConnectorOperation {
         mailboxConfiguration.setFromRegex(fromRegex);
         mailboxConfiguration.setOffset(offSetValue);
         mailboxConfiguration.setLimit(limitValue);
+        mailboxConfiguration.setHeadersOnly(Boolean.parseBoolean(headersOnly));
+        mailboxConfiguration.setParallelParsing(Boolean.parseBoolean(parallelParsing));
+        if (StringUtils.isNotEmpty(cursor)) {
+            mailboxConfiguration.setCursor(cursor);
+        }
 
         return mailboxConfiguration;
     }
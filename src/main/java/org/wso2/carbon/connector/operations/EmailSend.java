@@ -22,8 +22,8 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.util.InlineExpressionUtil;
 import org.jaxen.JaxenException;
-import org.wso2.carbon.connector.connection.EmailConnection;
 import org.wso2.carbon.connector.connection.EmailConnectionHandler;
+import org.wso2.carbon.connector.connection.SMTPConnection;
 import org.wso2.carbon.connector.core.ConnectException;
 import org.wso2.carbon.connector.exception.EmailConnectionException;
 import org.wso2.carbon.connector.exception.InvalidConfigurationException;
@@ -37,7 +37,6 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import javax.mail.MessagingException;
-import javax.mail.Transport;
 import javax.mail.internet.MimeMessage;
 
 import static java.lang.String.format;
@@ -55,9 +54,11 @@ public class EmailSend extends AbstractEmailConnectorOperation {
                         Boolean overwriteBody) throws ConnectException {
 
         EmailConnectionHandler handler = EmailConnectionHandler.getConnectionHandler();
+        String name = null;
+        SMTPConnection connection = null;
         try {
-            String name = EmailUtils.getConnectionName(messageContext);
-            EmailConnection connection = (EmailConnection) handler.getConnection(name);
+            name = EmailUtils.getConnectionName(messageContext);
+            connection = (SMTPConnection) handler.getConnection(name);
             sendMessage(messageContext, connection);
             JsonObject resultJSON = generateOperationResult(messageContext, true, null);
             handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
@@ -69,6 +70,10 @@ public class EmailSend extends AbstractEmailConnectorOperation {
             JsonObject resultJSON = generateOperationResult(messageContext, false, Error.INVALID_CONFIGURATION);
             handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
             handleException(e.getMessage(), e, messageContext);
+        } finally {
+            if (connection != null) {
+                handler.returnConnection(name, connection);
+            }
         }
     }
 
@@ -76,9 +81,9 @@ public class EmailSend extends AbstractEmailConnectorOperation {
      * Sends an email
      *
      * @param messageContext The message context that is generated for sending the email
-     * @param session        Mail Session to be used
+     * @param connection     SMTP connection to be used
      */
-    private void sendMessage(MessageContext messageContext, EmailConnection session) throws EmailConnectionException,
+    private void sendMessage(MessageContext messageContext, SMTPConnection connection) throws EmailConnectionException,
             InvalidConfigurationException, JaxenException {
 
         String to = (String) getParameter(messageContext, EmailConstants.TO);
@@ -103,7 +108,7 @@ public class EmailSend extends AbstractEmailConnectorOperation {
                     "Recipients are not provided.");
         } else {
             try {
-                MimeMessage message = MessageBuilder.newMessage(session.getSession())
+                MimeMessage message = MessageBuilder.newMessage(connection.getSession())
                         .to(to)
                         .fromAddress(from, personalName)
                         .cc(cc)
@@ -115,7 +120,7 @@ public class EmailSend extends AbstractEmailConnectorOperation {
                         .withAttachments(attachments)
                         .withHeaders(getEmailHeadersFromProperties(messageContext))
                         .build();
-                sendMessage(message);
+                sendMessage(message, connection);
                 if (log.isDebugEnabled()) {
                     log.debug(format("Email was sent successfully to %s..", to));
                 }
@@ -132,15 +137,16 @@ public class EmailSend extends AbstractEmailConnectorOperation {
     /**
      * Sends the message
      *
-     * @param message Message to be sent
+     * @param message    Message to be sent
+     * @param connection SMTP connection to send the message over
      * @throws MessagingException if failed to send the message
      */
-    private void sendMessage(MimeMessage message) throws MessagingException {
+    private void sendMessage(MimeMessage message, SMTPConnection connection) throws MessagingException {
 
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         try {
             Thread.currentThread().setContextClassLoader(javax.mail.Message.class.getClassLoader());
-            Transport.send(message);
+            connection.sendMessage(message);
         } finally {
             Thread.currentThread().setContextClassLoader(classLoader);
         }
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.operations;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.apache.commons.lang.StringUtils;
+import org.apache.synapse.MessageContext;
+import org.wso2.carbon.connector.connection.EmailConnectionHandler;
+import org.wso2.carbon.connector.connection.SMTPConnection;
+import org.wso2.carbon.connector.core.ConnectException;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
+import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+import org.wso2.carbon.connector.utils.AbstractEmailConnectorOperation;
+import org.wso2.carbon.connector.utils.EmailConstants;
+import org.wso2.carbon.connector.utils.EmailUtils;
+import org.wso2.carbon.connector.utils.Error;
+import org.wso2.carbon.connector.utils.MessageBuilder;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+import static java.lang.String.format;
+
+/**
+ * Sends multiple emails over pooled SMTP connections, without connecting to the server for each email
+ */
+public class EmailSendBulk extends AbstractEmailConnectorOperation {
+
+    private static final String HEADERS = "headers";
+
+    @Override
+    public void execute(MessageContext messageContext, String responseVariable,
+                        Boolean overwriteBody) throws ConnectException {
+
+        String errorString = "Error occurred while sending the emails.";
+
+        String messages = (String) getParameter(messageContext, EmailConstants.MESSAGES);
+        EmailConnectionHandler handler = EmailConnectionHandler.getConnectionHandler();
+        try {
+            JsonArray messageArray = parseMessages(messages);
+            String connectionName = EmailUtils.getConnectionName(messageContext);
+            JsonArray results = sendMessages(messageContext, messageArray, handler, connectionName);
+            boolean success = true;
+            for (JsonElement result : results) {
+                success &= result.getAsJsonObject().get("success").getAsBoolean();
+            }
+            JsonObject resultJSON = generateOperationResult(messageContext, success, null);
+            resultJSON.add("results", results);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+        } catch (EmailConnectionException e) {
+            JsonObject resultJSON = generateOperationResult(messageContext, false, Error.CONNECTIVITY);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            handleException(errorString, e, messageContext);
+        } catch (InvalidConfigurationException e) {
+            JsonObject resultJSON = generateOperationResult(messageContext, false, Error.INVALID_CONFIGURATION);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            handleException(errorString, e, messageContext);
+        }
+    }
+
+    /**
+     * Builds and sends each message over a pooled connection, one after the other. Once the maximum number of messages
+     * to be sent over the connection is reached, the connection is returned and the remaining messages are sent over
+     * a new connection.
+     *
+     * @param messageContext The message context containing the default values of the messages
+     * @param messages       Messages to be sent
+     * @param handler        Connection handler to borrow the connections from
+     * @param connectionName Name of the connection
+     * @return JSON array containing the status of each message
+     * @throws EmailConnectionException if failed to borrow the first connection
+     * @throws ConnectException         if failed to borrow the first connection
+     */
+    private JsonArray sendMessages(MessageContext messageContext, JsonArray messages, EmailConnectionHandler handler,
+                                   String connectionName) throws EmailConnectionException, ConnectException {
+
+        String from = (String) getParameter(messageContext, EmailConstants.FROM);
+        String personalName = (String) getParameter(messageContext, EmailConstants.PERSONAL_NAME);
+        String contentType = (String) getParameter(messageContext, EmailConstants.CONTENT_TYPE);
+        String encoding = (String) getParameter(messageContext, EmailConstants.ENCODING);
+        String contentTransferEncoding = (String) getParameter(messageContext,
+                EmailConstants.CONTENT_TRANSFER_ENCODING);
+
+        JsonArray results = new JsonArray();
+        String connectionError = null;
+        SMTPConnection connection = (SMTPConnection) handler.getConnection(connectionName);
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(javax.mail.Message.class.getClassLoader());
+            for (int i = 0; i < messages.size(); i++) {
+                JsonObject result = new JsonObject();
+                result.addProperty("index", i);
+                if (connectionError == null && connection.isExhausted()) {
+                    // Replaced so that the number of messages the server accepts over a session is not exceeded
+                    handler.returnConnection(connectionName, connection);
+                    connection = null;
+                    try {
+                        connection = (SMTPConnection) handler.getConnection(connectionName);
+                    } catch (EmailConnectionException | ConnectException e) {
+                        log.error("Error occurred while replacing the connection to the SMTP server.", e);
+                        connectionError = "Failed to connect to the SMTP server.";
+                    }
+                }
+                if (connectionError != null) {
+                    // Remaining messages are reported as failed so that they could be retried
+                    addFailure(result, connectionError);
+                    results.add(result);
+                    continue;
+                }
+                try {
+                    if (!messages.get(i).isJsonObject()) {
+                        throw new InvalidConfigurationException("Message must be a JSON object.");
+                    }
+                    JsonObject message = messages.get(i).getAsJsonObject();
+                    if (StringUtils.isEmpty(getString(message, EmailConstants.TO))
+                            && StringUtils.isEmpty(getString(message, EmailConstants.CC))
+                            && StringUtils.isEmpty(getString(message, EmailConstants.BCC))) {
+                        throw new InvalidConfigurationException("Recipients are not provided.");
+                    }
+                    MimeMessage mimeMessage = MessageBuilder.newMessage(connection.getSession())
+                            .to(getString(message, EmailConstants.TO))
+                            .fromAddress(getString(message, EmailConstants.FROM, from),
+                                    getString(message, EmailConstants.PERSONAL_NAME, personalName))
+                            .cc(getString(message, EmailConstants.CC))
+                            .bcc(getString(message, EmailConstants.BCC))
+                            .replyTo(getString(message, EmailConstants.REPLY_TO))
+                            .withSubject(getString(message, EmailConstants.SUBJECT))
+                            .withBody(getString(message, EmailConstants.CONTENT),
+                                    getString(message, EmailConstants.CONTENT_TYPE, contentType),
+                                    getString(message, EmailConstants.ENCODING, encoding),
+                                    getString(message, EmailConstants.CONTENT_TRANSFER_ENCODING,
+                                            contentTransferEncoding))
+                            .withInlineImages(getString(message, EmailConstants.INLINE_IMAGES))
+                            .withAttachments(getString(message, EmailConstants.ATTACHMENTS))
+                            .withHeaders(getHeaders(message))
+                            .build();
+                    connection.sendMessage(mimeMessage);
+                    result.addProperty("success", true);
+                } catch (InvalidConfigurationException | IOException e) {
+                    log.error(format("Error occurred while building the email at index %d.", i), e);
+                    addFailure(result, e.getMessage());
+                } catch (MessagingException | IllegalStateException e) {
+                    log.error(format("Error occurred while sending the email at index %d.", i), e);
+                    addFailure(result, e.getMessage());
+                    if (!connection.isConnected()) {
+                        connectionError = "Connection to the SMTP server was lost.";
+                    }
+                }
+                results.add(result);
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            if (connection != null) {
+                handler.returnConnection(connectionName, connection);
+            }
+        }
+        return results;
+    }
+
+    private void addFailure(JsonObject result, String error) {
+
+        result.addProperty("success", false);
+        result.addProperty("error", error);
+    }
+
+    /**
+     * Parses the JSON array of messages
+     *
+     * @param messages JSON array of messages
+     * @return parsed JSON array
+     * @throws InvalidConfigurationException if the messages are not set or the JSON array is malformed
+     */
+    private JsonArray parseMessages(String messages) throws InvalidConfigurationException {
+
+        if (StringUtils.isBlank(messages)) {
+            throw new InvalidConfigurationException("Messages are not provided.");
+        }
+        try {
+            return JsonParser.parseString(messages).getAsJsonArray();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new InvalidConfigurationException(format("Invalid JSON array of messages: %s.", messages), e);
+        }
+    }
+
+    /**
+     * Gets a value of a message as a string. Attachments and inline images may be given as JSON arrays.
+     *
+     * @param message JSON object of the message
+     * @param key     Name of the value
+     * @return the value, or null if not set
+     */
+    private String getString(JsonObject message, String key) {
+
+        return getString(message, key, null);
+    }
+
+    private String getString(JsonObject message, String key, String defaultValue) {
+
+        JsonElement value = message.get(key);
+        if (value == null || value.isJsonNull()) {
+            return defaultValue;
+        }
+        return value.isJsonPrimitive() ? value.getAsString() : value.toString();
+    }
+
+    /**
+     * Gets the custom headers of a message
+     *
+     * @param message JSON object of the message
+     * @return map of headers
+     * @throws InvalidConfigurationException if the headers are not a JSON object
+     */
+    private Map<String, String> getHeaders(JsonObject message) throws InvalidConfigurationException {
+
+        Map<String, String> headers = new HashMap<>();
+        JsonElement headersElement = message.get(HEADERS);
+        if (headersElement == null || headersElement.isJsonNull()) {
+            return headers;
+        } else if (!headersElement.isJsonObject()) {
+            throw new InvalidConfigurationException("Headers must be a JSON object.");
+        }
+        for (Map.Entry<String, JsonElement> header : headersElement.getAsJsonObject().entrySet()) {
+            headers.put(header.getKey(), header.getValue().getAsString());
+        }
+        return headers;
+    }
+}
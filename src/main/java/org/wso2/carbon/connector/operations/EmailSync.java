@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.operations;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.MessageVanishedEvent;
+import com.sun.mail.imap.ResyncData;
+import org.apache.commons.lang.StringUtils;
+import org.apache.synapse.MessageContext;
+import org.wso2.carbon.connector.connection.EmailConnectionHandler;
+import org.wso2.carbon.connector.connection.MailBoxConnection;
+import org.wso2.carbon.connector.core.ConnectException;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
+import org.wso2.carbon.connector.exception.EmailParsingException;
+import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+import org.wso2.carbon.connector.pojo.EmailMessage;
+import org.wso2.carbon.connector.pojo.SyncToken;
+import org.wso2.carbon.connector.utils.AbstractEmailConnectorOperation;
+import org.wso2.carbon.connector.utils.EmailConstants;
+import org.wso2.carbon.connector.utils.EmailUtils;
+import org.wso2.carbon.connector.utils.Error;
+
+import java.util.List;
+import javax.mail.FetchProfile;
+import javax.mail.Flags;
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.UIDFolder;
+import javax.mail.event.MailEvent;
+import javax.mail.internet.MimeMessage;
+
+import static java.lang.String.format;
+
+/**
+ * Retrieves the changes of a folder since a previous sync using IMAP modification sequences (CONDSTORE). The new
+ * emails, the emails whose flags have changed and, if the server supports QRESYNC, the UIDs of the removed emails
+ * are returned along with the token from which the next sync continues.
+ */
+public class EmailSync extends AbstractEmailConnectorOperation {
+
+    private static final String CONDSTORE = "CONDSTORE";
+    private static final String QRESYNC = "QRESYNC";
+
+    @Override
+    public void execute(MessageContext messageContext, String responseVariable,
+                        Boolean overwriteBody) throws ConnectException {
+
+        String errorString = "Error occurred while syncing folder: %s.";
+        String folder = (String) getParameter(messageContext, EmailConstants.FOLDER);
+        String syncToken = (String) getParameter(messageContext, EmailConstants.SYNC_TOKEN);
+        String connectionName = null;
+        EmailConnectionHandler handler = EmailConnectionHandler.getConnectionHandler();
+        MailBoxConnection connection = null;
+        try {
+            if (StringUtils.isEmpty(folder)) {
+                folder = EmailConstants.DEFAULT_FOLDER;
+            }
+            SyncToken token = StringUtils.isEmpty(syncToken) ? null : SyncToken.decode(syncToken);
+            connectionName = EmailUtils.getConnectionName(messageContext);
+            connection = (MailBoxConnection) handler.getConnection(connectionName);
+            JsonObject resultJSON = syncFolder(connection, folder, token);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+        } catch (EmailConnectionException | ConnectException e) {
+            JsonObject resultJSON = generateErrorResult(messageContext, Error.CONNECTIVITY);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            handleException(format(errorString, folder), e, messageContext);
+        } catch (InvalidConfigurationException e) {
+            JsonObject resultJSON = generateErrorResult(messageContext, Error.INVALID_CONFIGURATION);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            handleException(format(errorString, folder), e, messageContext);
+        } catch (EmailParsingException e) {
+            JsonObject resultJSON = generateErrorResult(messageContext, Error.RESPONSE_GENERATION);
+            handleConnectorResponse(messageContext, responseVariable, overwriteBody, resultJSON, null, null);
+            handleException(format(errorString, folder), e, messageContext);
+        } finally {
+            if (connection != null) {
+                handler.returnConnection(connectionName, connection);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the changes of the folder since the state given by the token.
+     * <p>
+     * If no token is given, or the folder has been recreated since the token was issued, only a new token is
+     * returned, and the emails of the folder should be retrieved with the list operation.
+     *
+     * @param connection Mailbox connection to be used
+     * @param folderName Name of the folder to be synced
+     * @param token      Token returned by the previous sync, if any
+     * @return the changes and the next token
+     */
+    private JsonObject syncFolder(MailBoxConnection connection, String folderName, SyncToken token)
+            throws EmailConnectionException, InvalidConfigurationException, EmailParsingException {
+
+        if (!connection.hasCapability(CONDSTORE)) {
+            throw new InvalidConfigurationException("Sync is supported only for IMAP servers supporting CONDSTORE.");
+        }
+        try {
+            boolean qresync = token != null && connection.hasCapability(QRESYNC);
+            // With QRESYNC the removed emails are reported by the server when the folder is selected
+            List<MailEvent> events = connection.openFolder(folderName, qresync
+                    ? new ResyncData(token.getUidValidity(), token.getHighestModSeq()) : ResyncData.CONDSTORE);
+            IMAPFolder folder = (IMAPFolder) connection.getFolder(folderName, Folder.READ_ONLY);
+            long uidValidity = folder.getUIDValidity();
+            long highestModSeq = folder.getHighestModSeq();
+            if (highestModSeq <= 0) {
+                throw new InvalidConfigurationException(format("Folder: %s does not support modification " +
+                        "sequences.", folderName));
+            }
+            long lastUid = Math.max(folder.getUIDNext() - 1, 0);
+
+            JsonObject resultJSON = new JsonObject();
+            JsonArray newEmails = new JsonArray();
+            JsonArray changedEmails = new JsonArray();
+            boolean resyncRequired = token != null && token.getUidValidity() != uidValidity;
+            if (token != null && !resyncRequired && highestModSeq > token.getHighestModSeq()) {
+                Message[] messages = folder.getMessagesByUIDChangedSince(1, UIDFolder.LASTUID,
+                        token.getHighestModSeq());
+                lastUid = Math.max(lastUid, collectChanges(folder, messages, token, newEmails, changedEmails));
+            }
+            if (token != null) {
+                lastUid = Math.max(lastUid, token.getLastUid());
+            }
+            resultJSON.addProperty("syncToken", new SyncToken(uidValidity, highestModSeq, lastUid).encode());
+            resultJSON.addProperty("resyncRequired", resyncRequired);
+            resultJSON.add("newEmails", newEmails);
+            resultJSON.add("changedEmails", changedEmails);
+            if (qresync) {
+                JsonArray vanishedUids = new JsonArray();
+                for (MailEvent event : events) {
+                    if (event instanceof MessageVanishedEvent) {
+                        for (long uid : ((MessageVanishedEvent) event).getUIDs()) {
+                            vanishedUids.add(uid);
+                        }
+                    }
+                }
+                resultJSON.add("vanishedUids", vanishedUids);
+            }
+            return resultJSON;
+        } catch (MessagingException e) {
+            throw new EmailConnectionException(format("Error occurred while syncing folder: %s.", folderName), e);
+        } finally {
+            connection.closeFolder(false);
+        }
+    }
+
+    /**
+     * Fetches the envelope and the flags of the changed emails in a single request, and separates the new emails
+     * from the emails whose flags have changed
+     *
+     * @param folder        Opened folder
+     * @param messages      Emails changed since the token
+     * @param token         Token returned by the previous sync
+     * @param newEmails     JSON array to which the new emails are added
+     * @param changedEmails JSON array to which the emails whose flags have changed are added
+     * @return the highest UID of the changed emails
+     */
+    private long collectChanges(IMAPFolder folder, Message[] messages, SyncToken token, JsonArray newEmails,
+                                JsonArray changedEmails) throws MessagingException, EmailParsingException {
+
+        FetchProfile fetchProfile = new FetchProfile();
+        fetchProfile.add(FetchProfile.Item.ENVELOPE);
+        fetchProfile.add(FetchProfile.Item.FLAGS);
+        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        long lastUid = 0;
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(javax.mail.Message.class.getClassLoader());
+            folder.fetch(messages, fetchProfile);
+            for (Message message : messages) {
+                long uid = folder.getUID(message);
+                lastUid = Math.max(lastUid, uid);
+                JsonObject emailObject = new JsonObject();
+                if (uid > token.getLastUid()) {
+                    EmailMessage email = EmailMessage.fromEnvelope((MimeMessage) message);
+                    emailObject.addProperty("emailId", email.getEmailId());
+                    emailObject.addProperty("uid", uid);
+                    emailObject.addProperty("to", email.getTo());
+                    emailObject.addProperty("from", email.getFrom());
+                    emailObject.addProperty("cc", email.getCc());
+                    emailObject.addProperty("replyTo", email.getReplyTo());
+                    emailObject.addProperty("subject", email.getSubject());
+                    emailObject.add("flags", createFlagsJson(message.getFlags()));
+                    newEmails.add(emailObject);
+                } else {
+                    emailObject.addProperty("emailId", ((MimeMessage) message).getMessageID());
+                    emailObject.addProperty("uid", uid);
+                    emailObject.add("flags", createFlagsJson(message.getFlags()));
+                    changedEmails.add(emailObject);
+                }
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(classLoader);
+        }
+        return lastUid;
+    }
+
+    /**
+     * Creates a JSON object of the system flags of an email
+     *
+     * @param flags Flags of the email
+     * @return JSON object of the flags
+     */
+    private JsonObject createFlagsJson(Flags flags) {
+
+        JsonObject flagsObject = new JsonObject();
+        flagsObject.addProperty(EmailConstants.FLAG_SEEN, flags.contains(Flags.Flag.SEEN));
+        flagsObject.addProperty(EmailConstants.FLAG_ANSWERED, flags.contains(Flags.Flag.ANSWERED));
+        flagsObject.addProperty(EmailConstants.FLAG_DELETED, flags.contains(Flags.Flag.DELETED));
+        flagsObject.addProperty("flagged", flags.contains(Flags.Flag.FLAGGED));
+        flagsObject.addProperty("draft", flags.contains(Flags.Flag.DRAFT));
+        return flagsObject;
+    }
+}
@@ -21,12 +21,21 @@ import org.apache.commons.lang.StringUtils;
 import org.wso2.carbon.connector.connection.EmailProtocol;
 import org.wso2.carbon.connector.core.pool.Configuration;
 import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+import org.wso2.carbon.connector.utils.EmailConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Configuration parameters used to establish a connection to the email server
  */
 public class ConnectionConfiguration {
 
+    private static final int DEFAULT_MAX_MESSAGES_PER_CONNECTION = 100;
+    // Shorter than the minimum idle timeout of SMTP servers, which is 5 minutes
+    private static final long DEFAULT_KEEP_ALIVE_INTERVAL = 240000;
+
     private String host;
     private String port;
     private String connectionName;
@@ -45,6 +54,12 @@ public class ConnectionConfiguration {
     private Configuration configuration;
     private boolean enableOAuth2 = false;
     private OAuthConfig oAuthConfig;
+    private boolean keepFolderOpen;
+    private int maxMessagesPerConnection = DEFAULT_MAX_MESSAGES_PER_CONNECTION;
+    private int minIdleConnections;
+    private long keepAliveInterval = DEFAULT_KEEP_ALIVE_INTERVAL;
+    private String idleSequence;
+    private List<String> idleFolders = Collections.singletonList(EmailConstants.DEFAULT_FOLDER);
 
     public ConnectionConfiguration() {
 
@@ -334,6 +349,92 @@ public class ConnectionConfiguration {
         this.oAuthConfig = oAuthConfig;
     }
 
+    public boolean isKeepFolderOpen() {
+
+        return keepFolderOpen;
+    }
+
+    public void setKeepFolderOpen(String keepFolderOpen) {
+
+        this.keepFolderOpen = Boolean.parseBoolean(keepFolderOpen);
+    }
+
+    public int getMaxMessagesPerConnection() {
+
+        return maxMessagesPerConnection;
+    }
+
+    public void setMaxMessagesPerConnection(String maxMessagesPerConnection) throws InvalidConfigurationException {
+
+        if (StringUtils.isEmpty(maxMessagesPerConnection)) {
+            return;
+        } else if (!StringUtils.isNumeric(maxMessagesPerConnection)) {
+            throw new InvalidConfigurationException("Parameter 'max messages per connection' must be a numeric value.");
+        }
+        this.maxMessagesPerConnection = Integer.parseInt(maxMessagesPerConnection);
+    }
+
+    public int getMinIdleConnections() {
+
+        return minIdleConnections;
+    }
+
+    public void setMinIdleConnections(String minIdleConnections) throws InvalidConfigurationException {
+
+        if (StringUtils.isEmpty(minIdleConnections)) {
+            return;
+        } else if (!StringUtils.isNumeric(minIdleConnections)) {
+            throw new InvalidConfigurationException("Parameter 'min idle connections' must be a numeric value.");
+        }
+        this.minIdleConnections = Integer.parseInt(minIdleConnections);
+    }
+
+    public long getKeepAliveInterval() {
+
+        return keepAliveInterval;
+    }
+
+    public void setKeepAliveInterval(String keepAliveInterval) throws InvalidConfigurationException {
+
+        if (StringUtils.isEmpty(keepAliveInterval)) {
+            return;
+        } else if (!StringUtils.isNumeric(keepAliveInterval)) {
+            throw new InvalidConfigurationException("Parameter 'keep alive interval' must be a numeric value.");
+        }
+        this.keepAliveInterval = Long.parseLong(keepAliveInterval);
+    }
+
+    public String getIdleSequence() {
+
+        return idleSequence;
+    }
+
+    public void setIdleSequence(String idleSequence) {
+
+        this.idleSequence = idleSequence;
+    }
+
+    public List<String> getIdleFolders() {
+
+        return idleFolders;
+    }
+
+    public void setIdleFolders(String idleFolders) {
+
+        if (StringUtils.isBlank(idleFolders)) {
+            return;
+        }
+        List<String> folders = new ArrayList<>();
+        for (String folder : idleFolders.split(",")) {
+            if (StringUtils.isNotBlank(folder)) {
+                folders.add(folder.trim());
+            }
+        }
+        if (!folders.isEmpty()) {
+            this.idleFolders = folders;
+        }
+    }
+
     public void setProtocolByName(String protocol) {
         if (protocol.equalsIgnoreCase("smtp")) {
             this.protocol = EmailProtocol.SMTP;
@@ -18,17 +18,32 @@
 package org.wso2.carbon.connector.pojo;
 
 import org.apache.commons.mail.util.MimeMessageParser;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
 import org.wso2.carbon.connector.exception.EmailParsingException;
+import org.wso2.carbon.connector.utils.EmailUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.activation.DataSource;
 import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Part;
+import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
 /**
  * Contains the parsed email content
+ * <p>
+ * The emails listed with headersOnly on an IMAP connection, and the emails notified by the new email listener, are
+ * {@link LazyEmailMessage}s of which the content is fetched from the server when it is first read. For such an email,
+ * {@link #getTextContent()}, {@link #getHtmlContent()} and {@link Attachment#getContent()} of the attachments throw an
+ * unchecked {@link IllegalStateException} if the content cannot be fetched, e.g. when the email has been removed from
+ * the folder. Call {@link #load()} first to fetch the content with a checked exception instead.
  */
 public class EmailMessage {
 
@@ -42,6 +57,8 @@ public class EmailMessage {
     private String htmlContent;
     private String textContent;
     private List<Attachment> attachments;
+    private Date receivedDate;
+    private String folder;
 
     public EmailMessage() {
 
@@ -60,6 +77,7 @@ public class EmailMessage {
             this.bcc = getAddressListAsString(parser.getBcc());
             this.subject = parser.getSubject();
             this.replyTo = parser.getReplyTo();
+            this.receivedDate = getReceivedDate(message);
             List<DataSource> dataSources = parser.getAttachmentList();
             if (!dataSources.isEmpty()) {
                 attachments = new ArrayList<>();
@@ -73,6 +91,87 @@ public class EmailMessage {
         }
     }
 
+    /**
+     * Creates an email message from the envelope and the body structure of the given message. The text and HTML
+     * content are not retrieved and the attachments only contain the name and the content type.
+     *
+     * @param message Message of which the envelope and the body structure are already fetched
+     * @return Email message containing the headers and the attachment information
+     * @throws EmailParsingException if failed to read the message headers
+     */
+    public static EmailMessage fromEnvelope(MimeMessage message) throws EmailParsingException {
+
+        EmailMessage emailMessage = new EmailMessage();
+        emailMessage.readEnvelope(message);
+        return emailMessage;
+    }
+
+    /**
+     * Reads the headers and the attachment information of the given message, of which the envelope and the body
+     * structure are already fetched
+     *
+     * @param message Message to be read
+     * @throws EmailParsingException if failed to read the message headers
+     */
+    protected void readEnvelope(MimeMessage message) throws EmailParsingException {
+
+        try {
+            this.emailId = message.getMessageID();
+            setTo(getRecipients(message, Message.RecipientType.TO));
+            setCc(getRecipients(message, Message.RecipientType.CC));
+            setBcc(getRecipients(message, Message.RecipientType.BCC));
+            this.from = getFirstAddress(message.getFrom());
+            this.replyTo = getFirstAddress(message.getReplyTo());
+            this.subject = message.getSubject();
+            this.receivedDate = getReceivedDate(message);
+            List<Part> attachmentParts = EmailUtils.getAttachmentParts(message);
+            if (!attachmentParts.isEmpty()) {
+                this.attachments = new ArrayList<>();
+            }
+            for (Part part : attachmentParts) {
+                this.attachments.add(EmailUtils.getAttachmentDescriptor(part));
+            }
+        } catch (Exception e) {
+            throw new EmailParsingException("Error occurred while retrieving message headers.", e);
+        }
+    }
+
+    /**
+     * Loads the text and HTML content and the content of the attachments, if they are not read yet. The content of an
+     * email created from a parsed message is already read, so this does nothing. Once loaded, the getters of the
+     * content do not fail.
+     *
+     * @throws EmailConnectionException if failed to retrieve the content
+     */
+    public void load() throws EmailConnectionException {
+
+    }
+
+    /**
+     * Gets the date the message was received, or the date it was sent if the received date is not available, such as
+     * with POP3
+     */
+    private static Date getReceivedDate(MimeMessage message) throws MessagingException {
+
+        Date receivedDate = message.getReceivedDate();
+        return receivedDate != null ? receivedDate : message.getSentDate();
+    }
+
+    private static List<Address> getRecipients(MimeMessage message, Message.RecipientType type)
+            throws MessagingException {
+
+        Address[] recipients = message.getRecipients(type);
+        return recipients != null ? Arrays.asList(recipients) : Collections.emptyList();
+    }
+
+    private static String getFirstAddress(Address[] addresses) {
+
+        if (addresses == null || addresses.length == 0) {
+            return null;
+        }
+        return ((InternetAddress) addresses[0]).getAddress();
+    }
+
     public String getHtmlContent() {
 
         return htmlContent;
@@ -171,6 +270,26 @@ public class EmailMessage {
         this.replyTo = replyTo;
     }
 
+    public Date getReceivedDate() {
+
+        return receivedDate;
+    }
+
+    public void setReceivedDate(Date receivedDate) {
+
+        this.receivedDate = receivedDate;
+    }
+
+    public String getFolder() {
+
+        return folder;
+    }
+
+    public void setFolder(String folder) {
+
+        this.folder = folder;
+    }
+
     private String getAddressListAsString(List<Address> addresses) {
 
         return String.join(",", addresses.stream().map(Address::toString).collect(Collectors.toList()));
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.pojo;
+
+import java.util.List;
+
+/**
+ * Contains a page of emails retrieved from a mailbox folder
+ */
+public class EmailPage {
+
+    private final List<EmailMessage> emails;
+    private final String nextCursor;
+
+    public EmailPage(List<EmailMessage> emails, String nextCursor) {
+
+        this.emails = emails;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EmailMessage> getEmails() {
+
+        return emails;
+    }
+
+    /**
+     * @return the cursor to be used to retrieve the next page, or null if there are no more emails
+     */
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.pojo;
+
+import com.sun.mail.imap.IMAPFolder;
+import org.wso2.carbon.connector.connection.EmailConnectionHandler;
+import org.wso2.carbon.connector.connection.MailBoxConnection;
+import org.wso2.carbon.connector.core.ConnectException;
+import org.wso2.carbon.connector.exception.EmailConnectionException;
+import org.wso2.carbon.connector.exception.EmailParsingException;
+import org.wso2.carbon.connector.utils.EmailUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Part;
+import javax.mail.internet.MimeMessage;
+
+import static java.lang.String.format;
+
+/**
+ * An email of which only the headers and the attachment information are read when it is created.
+ * <p>
+ * The email keeps a handle to the IMAP message, i.e. the connection, the folder, the UIDVALIDITY of the folder and
+ * the UID of the message. The text and HTML content are fetched when they are first requested, and the content of
+ * an attachment is fetched when it is first read, over a connection borrowed from the pool. If the content cannot be
+ * fetched, e.g. when the email is no longer available in the folder, the getters fail with an
+ * {@link IllegalStateException}. {@link #load()} fetches all the content with a checked exception instead.
+ */
+public class LazyEmailMessage extends EmailMessage {
+
+    private final String connectionName;
+    private final String mailboxFolder;
+    private final long uidValidity;
+    private final long uid;
+    private boolean contentLoaded;
+
+    /**
+     * Creates an email from the envelope and the body structure of the given message
+     *
+     * @param connectionName Name of the connection the message was retrieved with
+     * @param folder         Opened folder containing the message
+     * @param message        Message of which the envelope, the body structure and the UID are already fetched
+     * @throws EmailParsingException if failed to read the message headers
+     */
+    public LazyEmailMessage(String connectionName, IMAPFolder folder, MimeMessage message)
+            throws EmailParsingException {
+
+        this.connectionName = connectionName;
+        this.mailboxFolder = folder.getFullName();
+        try {
+            this.uidValidity = folder.getUIDValidity();
+            this.uid = folder.getUID(message);
+        } catch (MessagingException e) {
+            throw new EmailParsingException("Error occurred while retrieving message UID.", e);
+        }
+        readEnvelope(message);
+        List<Attachment> attachments = super.getAttachments();
+        if (attachments != null) {
+            List<Attachment> lazyAttachments = new ArrayList<>(attachments.size());
+            for (int i = 0; i < attachments.size(); i++) {
+                lazyAttachments.add(new LazyAttachment(attachments.get(i), i));
+            }
+            setAttachments(lazyAttachments);
+        }
+    }
+
+    @Override
+    public String getHtmlContent() {
+
+        loadContentUnchecked();
+        return super.getHtmlContent();
+    }
+
+    @Override
+    public String getTextContent() {
+
+        loadContentUnchecked();
+        return super.getTextContent();
+    }
+
+    @Override
+    public void load() throws EmailConnectionException {
+
+        loadContent();
+        List<Attachment> attachments = getAttachments();
+        if (attachments != null) {
+            for (Attachment attachment : attachments) {
+                ((LazyAttachment) attachment).load();
+            }
+        }
+    }
+
+    private void loadContentUnchecked() {
+
+        try {
+            loadContent();
+        } catch (EmailConnectionException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fetches the text and HTML content of the email, without fetching the attachments
+     *
+     * @throws EmailConnectionException if failed to retrieve the content
+     */
+    private synchronized void loadContent() throws EmailConnectionException {
+
+        if (contentLoaded) {
+            return;
+        }
+        try {
+            String[] content = fetch(message -> {
+                Part[] bodyParts = EmailUtils.getBodyParts(message);
+                return new String[]{readContent(bodyParts[0]), readContent(bodyParts[1])};
+            });
+            setTextContent(content[0]);
+            setHtmlContent(content[1]);
+            contentLoaded = true;
+        } catch (EmailConnectionException | EmailParsingException e) {
+            throw new EmailConnectionException(format("Error occurred while retrieving content of email with ID: %s.",
+                    getEmailId()), e);
+        }
+    }
+
+    private static String readContent(Part part) throws MessagingException, IOException {
+
+        return part != null ? (String) part.getContent() : null;
+    }
+
+    /**
+     * Borrows a connection, finds the message by its UID and applies the given function while the folder is open
+     *
+     * @param function Function to be applied on the message
+     * @return the result of the function
+     * @throws EmailConnectionException if failed to retrieve the message
+     * @throws EmailParsingException    if the message is no longer available
+     */
+    private <T> T fetch(MessageFunction<T> function) throws EmailConnectionException, EmailParsingException {
+
+        EmailConnectionHandler handler = EmailConnectionHandler.getConnectionHandler();
+        MailBoxConnection connection;
+        try {
+            connection = (MailBoxConnection) handler.getConnection(connectionName);
+        } catch (ConnectException e) {
+            throw new EmailConnectionException(format("Error occurred while retrieving connection: %s.",
+                    connectionName), e);
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            IMAPFolder folder = (IMAPFolder) connection.getFolder(mailboxFolder, Folder.READ_ONLY);
+            Message message = null;
+            if (folder.getUIDValidity() == uidValidity) {
+                message = folder.getMessageByUID(uid);
+            }
+            if (message == null || message.isExpunged()) {
+                throw new EmailParsingException(format("Email with ID: %s is no longer available in folder: %s.",
+                        getEmailId(), mailboxFolder), null);
+            }
+            Thread.currentThread().setContextClassLoader(javax.mail.Message.class.getClassLoader());
+            return function.apply((MimeMessage) message);
+        } catch (MessagingException | IOException e) {
+            throw new EmailConnectionException("Error occurred when retrieving email content.", e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            try {
+                connection.closeFolder(false);
+            } finally {
+                handler.returnConnection(connectionName, connection);
+            }
+        }
+    }
+
+    /**
+     * Function applied on a message while its folder is open
+     */
+    private interface MessageFunction<T> {
+
+        T apply(MimeMessage message) throws MessagingException, IOException, EmailParsingException;
+    }
+
+    /**
+     * Attachment of which the content is fetched when it is first read
+     */
+    private class LazyAttachment extends Attachment {
+
+        private final int index;
+
+        LazyAttachment(Attachment descriptor, int index) {
+
+            this.index = index;
+            setName(descriptor.getName());
+            setContentType(descriptor.getContentType());
+        }
+
+        @Override
+        public synchronized InputStream getContent() {
+
+            try {
+                load();
+            } catch (EmailConnectionException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            return super.getContent();
+        }
+
+        /**
+         * Fetches the content of the attachment, if it is not fetched yet
+         *
+         * @throws EmailConnectionException if failed to retrieve the content
+         */
+        synchronized void load() throws EmailConnectionException {
+
+            if (super.getContent() != null) {
+                return;
+            }
+            try {
+                setContent(fetch(message -> EmailUtils.getAttachmentContent(
+                        EmailUtils.getAttachmentParts(message).get(index))));
+            } catch (EmailConnectionException | EmailParsingException e) {
+                throw new EmailConnectionException(format("Error occurred while retrieving attachment %d of email " +
+                        "with ID: %s.", index, getEmailId()), e);
+            }
+        }
+    }
+}
@@ -17,6 +17,8 @@
  */
 package org.wso2.carbon.connector.pojo;
 
+import java.util.List;
+
 /**
  * Configuration parameters used to connect to a mailbox folder in the email server
  */
@@ -36,6 +38,10 @@ public class MailboxConfiguration {
     private String fromRegex;
     private int offset;
     private int limit;
+    private boolean headersOnly;
+    private String cursor;
+    private List<String> folders;
+    private boolean parallelParsing;
 
     public String getFolder() {
 
@@ -176,4 +182,44 @@ public class MailboxConfiguration {
 
         this.limit = limit;
     }
+
+    public boolean getHeadersOnly() {
+
+        return headersOnly;
+    }
+
+    public void setHeadersOnly(boolean headersOnly) {
+
+        this.headersOnly = headersOnly;
+    }
+
+    public String getCursor() {
+
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+
+        this.cursor = cursor;
+    }
+
+    public List<String> getFolders() {
+
+        return folders;
+    }
+
+    public void setFolders(List<String> folders) {
+
+        this.folders = folders;
+    }
+
+    public boolean getParallelParsing() {
+
+        return parallelParsing;
+    }
+
+    public void setParallelParsing(boolean parallelParsing) {
+
+        this.parallelParsing = parallelParsing;
+    }
 }
@@ -19,6 +19,8 @@ package org.wso2.carbon.connector.pojo;
 import org.apache.commons.lang.StringUtils;
 import org.wso2.carbon.connector.exception.InvalidConfigurationException;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * This class is used to add and get OAuth configurations
  */
@@ -30,6 +32,7 @@ public class OAuthConfig {
     private String tokenUrl = null;
     private String tokenId = null;
     private String scope = null;
+    private Long tokenRefreshSkew = null;
 
     public String getGrantType() {
         return grantType;
@@ -89,4 +92,17 @@ public class OAuthConfig {
     public void setScope(String scope) {
         this.scope = scope;
     }
+
+    public Long getTokenRefreshSkew() {
+        return tokenRefreshSkew;
+    }
+
+    public void setTokenRefreshSkew(String tokenRefreshSkew) throws InvalidConfigurationException {
+        if (StringUtils.isEmpty(tokenRefreshSkew)) {
+            return;
+        } else if (!StringUtils.isNumeric(tokenRefreshSkew)) {
+            throw new InvalidConfigurationException("Parameter 'tokenRefreshSkew' must be a numeric value.");
+        }
+        this.tokenRefreshSkew = TimeUnit.SECONDS.toMillis(Long.parseLong(tokenRefreshSkew));
+    }
 }
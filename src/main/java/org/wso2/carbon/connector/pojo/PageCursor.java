@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.pojo;
+
+import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static java.lang.String.format;
+
+/**
+ * Continuation cursor of a paginated email listing. The cursor points to the last email returned in the previous
+ * page using the UID of the email and the UIDVALIDITY of the folder.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final long uidValidity;
+    private final long lastUid;
+
+    public PageCursor(long uidValidity, long lastUid) {
+
+        this.uidValidity = uidValidity;
+        this.lastUid = lastUid;
+    }
+
+    public long getUidValidity() {
+
+        return uidValidity;
+    }
+
+    public long getLastUid() {
+
+        return lastUid;
+    }
+
+    /**
+     * Encodes the cursor to an opaque string
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+
+        String cursor = uidValidity + SEPARATOR + lastUid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor returned by a previous listing
+     *
+     * @param cursor encoded cursor
+     * @return decoded cursor
+     * @throws InvalidConfigurationException if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) throws InvalidConfigurationException {
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            String[] parts = decoded.split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new InvalidConfigurationException(format("Invalid cursor: %s.", cursor));
+            }
+            return new PageCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidConfigurationException(format("Invalid cursor: %s.", cursor), e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.pojo;
+
+import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static java.lang.String.format;
+
+/**
+ * State of a folder returned by a sync, from which the next sync continues. The state is identified by the
+ * UIDVALIDITY and the HIGHESTMODSEQ of the folder, along with the UID of the last email known, which distinguishes
+ * the new emails from the emails whose flags have changed.
+ */
+public class SyncToken {
+
+    private static final String SEPARATOR = ":";
+
+    private final long uidValidity;
+    private final long highestModSeq;
+    private final long lastUid;
+
+    public SyncToken(long uidValidity, long highestModSeq, long lastUid) {
+
+        this.uidValidity = uidValidity;
+        this.highestModSeq = highestModSeq;
+        this.lastUid = lastUid;
+    }
+
+    public long getUidValidity() {
+
+        return uidValidity;
+    }
+
+    public long getHighestModSeq() {
+
+        return highestModSeq;
+    }
+
+    public long getLastUid() {
+
+        return lastUid;
+    }
+
+    /**
+     * Encodes the token to an opaque string
+     *
+     * @return encoded token
+     */
+    public String encode() {
+
+        String token = uidValidity + SEPARATOR + highestModSeq + SEPARATOR + lastUid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a token returned by a previous sync
+     *
+     * @param token encoded token
+     * @return decoded token
+     * @throws InvalidConfigurationException if the token is malformed
+     */
+    public static SyncToken decode(String token) throws InvalidConfigurationException {
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            String[] parts = decoded.split(SEPARATOR);
+            if (parts.length != 3) {
+                throw new InvalidConfigurationException(format("Invalid sync token: %s.", token));
+            }
+            return new SyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidConfigurationException(format("Invalid sync token: %s.", token), e);
+        }
+    }
+}
@@ -17,7 +17,10 @@
  */
 package org.wso2.carbon.connector.utils;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import org.apache.axis2.AxisFault;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.commons.json.JsonUtil;
@@ -27,12 +30,16 @@ import org.apache.synapse.data.connector.DefaultConnectorResponse;
 import org.wso2.carbon.connector.core.AbstractConnector;
 import org.wso2.carbon.connector.core.ConnectException;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
 public abstract class AbstractEmailConnectorOperation extends AbstractConnector {
 
+    // Writes JSON elements in the same format as JsonElement.toString()
+    private static final Gson JSON_WRITER = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+
     abstract public void execute(MessageContext messageContext, String responseVariable, Boolean overwriteBody)
             throws ConnectException;
 
@@ -149,15 +156,11 @@ public abstract class AbstractEmailConnectorOperation extends AbstractConnector
 
     ConnectorResponse response = new DefaultConnectorResponse();
     if (overwriteBody != null && overwriteBody) {
-        org.apache.axis2.context.MessageContext axisMsgCtx = ((Axis2MessageContext) messageContext).getAxis2MessageContext();
-        String jsonString = payload.toString();
-        try {
-            JsonUtil.getNewJsonPayload(axisMsgCtx, jsonString, true, true);
-        } catch (AxisFault e) {
-            handleException("Error setting response payload", e, messageContext);
-        }
-        axisMsgCtx.setProperty(org.apache.axis2.Constants.Configuration.MESSAGE_TYPE, ResponseConstants.JSON_CONTENT_TYPE);
-        axisMsgCtx.setProperty(org.apache.axis2.Constants.Configuration.CONTENT_TYPE, ResponseConstants.JSON_CONTENT_TYPE);
+        // The payload is written when the body is read instead of being converted to a string, which is then parsed
+        setJsonPayload(messageContext, writer -> {
+            JSON_WRITER.toJson(payload, writer);
+            return false;
+        });
     } else {
         if (headers == null) {
             headers = new HashMap<>();
@@ -169,4 +172,41 @@ public abstract class AbstractEmailConnectorOperation extends AbstractConnector
     }
     }
 
+    /**
+     * Sets the JSON payload written by the given writer as the message body. The body is backed by a stream which
+     * runs the writer part by part as the body is read, e.g. when the response is written out, so that the payload is
+     * neither serialized up front nor held as a whole in a buffer or a string.
+     *
+     * @param messageContext Message Context
+     * @param payloadWriter  Writer of the JSON payload
+     */
+    protected void setJsonPayload(MessageContext messageContext, JsonPayloadWriter payloadWriter) {
+
+        org.apache.axis2.context.MessageContext axisMsgCtx =
+                ((Axis2MessageContext) messageContext).getAxis2MessageContext();
+        try {
+            JsonUtil.getNewJsonPayload(axisMsgCtx, new JsonPayloadInputStream(payloadWriter), true, true);
+        } catch (AxisFault e) {
+            handleException("Error setting response payload", e, messageContext);
+        }
+        axisMsgCtx.setProperty(org.apache.axis2.Constants.Configuration.MESSAGE_TYPE,
+                ResponseConstants.JSON_CONTENT_TYPE);
+        axisMsgCtx.setProperty(org.apache.axis2.Constants.Configuration.CONTENT_TYPE,
+                ResponseConstants.JSON_CONTENT_TYPE);
+    }
+
+    /**
+     * Writes a JSON payload part by part, so that each part is written only once the previous part has been read
+     */
+    protected interface JsonPayloadWriter {
+
+        /**
+         * Writes the next part of the payload
+         *
+         * @param writer JSON writer to write to
+         * @return true if there are more parts to be written, false once the payload is complete
+         * @throws IOException if failed to write the part
+         */
+        boolean writeNext(JsonWriter writer) throws IOException;
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.utils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+import javax.activation.DataSource;
+
+/**
+ * Data Source of an attachment given as Base64 encoded content.
+ * <p>
+ * The content is kept encoded and is decoded while it is read, which happens when the email is written to the
+ * server, so that the decoded content is never held in memory. The content could be read more than once. As with
+ * MIME content, characters outside the Base64 alphabet, such as line separators, are ignored when decoding.
+ */
+public class Base64AttachmentDataSource implements DataSource {
+
+    private final String name;
+    private final String base64Content;
+    private final String contentType;
+
+    Base64AttachmentDataSource(String name, String base64Content, String contentType) {
+
+        this.name = name;
+        this.base64Content = base64Content;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Checks if the content is Base64 encoded, with padding and without line separators, in a single pass
+     *
+     * @param content Content to be checked
+     * @return true if the content is Base64 encoded, false otherwise
+     */
+    static boolean isBase64(String content) {
+
+        int length = content.length();
+        if (length == 0 || length % 4 != 0) {
+            return false;
+        }
+        int padding = 0;
+        if (content.charAt(length - 1) == '=') {
+            padding = content.charAt(length - 2) == '=' ? 2 : 1;
+        }
+        for (int i = 0; i < length - padding; i++) {
+            char c = content.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '+'
+                    || c == '/')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+
+        return Base64.getMimeDecoder().wrap(new EncodedContentInputStream(base64Content));
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+
+        throw new UnsupportedOperationException(Base64AttachmentDataSource.class.getName() + " does not provide an " +
+                "OutputStream");
+    }
+
+    @Override
+    public String getContentType() {
+
+        return contentType;
+    }
+
+    @Override
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * Reads the characters of the encoded content as bytes, without copying the content
+     */
+    private static final class EncodedContentInputStream extends InputStream {
+
+        private final String content;
+        private int position;
+
+        EncodedContentInputStream(String content) {
+
+            this.content = content;
+        }
+
+        @Override
+        public int read() {
+
+            return position < content.length() ? content.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= content.length()) {
+                return -1;
+            }
+            int count = Math.min(length, content.length() - position);
+            for (int i = 0; i < count; i++) {
+                bytes[offset + i] = (byte) content.charAt(position++);
+            }
+            return count;
+        }
+
+        @Override
+        public int available() {
+
+            return content.length() - position;
+        }
+    }
+}
@@ -39,6 +39,7 @@ public final class EmailConnectionConstants {
     public static final String PROPERTY_WRITE_TIMEOUT = "mail.%s.writetimeout";
     public static final String PROPERTY_CHECK_SERVER_IDENTITY = "mail.%s.ssl.checkserveridentity";
     public static final String PROPERTY_AUTH_MECHANISMS = "mail.%s.auth.mechanisms";
+    public static final String PROPERTY_PEEK = "mail.%s.peek";
 
     private EmailConnectionConstants() {
 
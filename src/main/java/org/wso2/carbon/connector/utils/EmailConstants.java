@@ -51,9 +51,14 @@ public final class EmailConstants {
     public static final String REFRESH_TOKEN = "refreshToken";
     public static final String TOKEN_URL = "tokenUrl";
     public static final String SCOPE = "scope";
+    public static final String TOKEN_REFRESH_SKEW = "tokenRefreshSkew";
     public static final String AUTH_MECHANISM_XOAUTH2 = "XOAUTH2";
     public static final String FOLDER = "folder";
+    public static final String FOLDERS = "folders";
     public static final String EMAIL_ID = "emailId";
+    public static final String EMAIL_IDS = "emailIds";
+    public static final String UIDS = "uids";
+    public static final String MESSAGES = "messages";
     public static final String EMAIL_INDEX = "emailIndex";
     public static final String ATTACHMENT_INDEX = "attachmentIndex";
     public static final String CONNECTION = "connection";
@@ -66,6 +71,10 @@ public final class EmailConstants {
     public static final String FROM_REGEX = "fromRegex";
     public static final String OFFSET = "offset";
     public static final String LIMIT = "limit";
+    public static final String HEADERS_ONLY = "headersOnly";
+    public static final String PARALLEL_PARSING = "parallelParsing";
+    public static final String CURSOR = "cursor";
+    public static final String SYNC_TOKEN = "syncToken";
     public static final String READ_TIMEOUT = "readTimeout";
     public static final String WRITE_TIMEOUT = "writeTimeout";
     public static final String CONNECTION_TIMEOUT = "connectionTimeout";
@@ -75,8 +84,15 @@ public final class EmailConstants {
     public static final String SSL_PROTOCOLS = "sslProtocols";
     public static final String CIPHER_SUITES = "cipherSuites";
     public static final String REQUIRE_AUTHENTICATION = "requireAuthentication";
+    public static final String KEEP_FOLDER_OPEN = "keepFolderOpen";
+    public static final String MAX_MESSAGES_PER_CONNECTION = "maxMessagesPerConnection";
+    public static final String MIN_IDLE_CONNECTIONS = "minIdleConnections";
+    public static final String KEEP_ALIVE_INTERVAL = "keepAliveInterval";
+    public static final String IDLE_SEQUENCE = "idleSequence";
+    public static final String IDLE_FOLDERS = "idleFolders";
     public static final String ATTACHMENT_FILE_NAME = "name";
     public static final String ATTACHMENT_FILE_CONTENT = "content";
+    public static final String ATTACHMENT_CONTENT_TYPE = "contentType";
     // Default email configuration values
     public static final String DEFAULT_SOCKETFACTORY_FALLBACK = "false";
     public static final String DEFAULT_FOLDER = "INBOX";
@@ -17,16 +17,19 @@
  */
 package org.wso2.carbon.connector.utils;
 
-import com.sun.mail.imap.IMAPMessage;
+import com.sun.mail.imap.IMAPFolder;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.MessageContext;
+import org.apache.synapse.core.SynapseEnvironment;
 import org.wso2.carbon.connector.connection.EmailConnection;
 import org.wso2.carbon.connector.connection.EmailConnectionFactory;
 import org.wso2.carbon.connector.connection.EmailProtocol;
 import org.wso2.carbon.connector.connection.MailBoxConnection;
-import org.wso2.carbon.connector.connection.oauth.OAuthUtils;
+import org.wso2.carbon.connector.connection.MailBoxListener;
+import org.wso2.carbon.connector.connection.MessageIdIndex;
+import org.wso2.carbon.connector.connection.SMTPConnectionFactory;
 import org.wso2.carbon.connector.connection.EmailConnectionHandler;
 import org.wso2.carbon.connector.core.exception.ContentBuilderException;
 import org.wso2.carbon.connector.exception.EmailConnectionException;
@@ -38,12 +41,39 @@ import org.wso2.carbon.connector.pojo.ConnectionConfiguration;
 import org.wso2.carbon.connector.pojo.EmailMessage;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.mail.FetchProfile;
 import javax.mail.Flags;
 import javax.mail.Folder;
 import javax.mail.Message;
 import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.Part;
+import javax.mail.UIDFolder;
 import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeUtility;
 import javax.mail.search.MessageIDTerm;
+import javax.mail.search.OrTerm;
 import javax.mail.search.SearchTerm;
 
 import static java.lang.String.format;
@@ -54,6 +84,16 @@ import static java.lang.String.format;
 public final class EmailUtils {
 
     private static final Log log = LogFactory.getLog(EmailUtils.class);
+    private static final String MESSAGE_ID_HEADER = "Message-ID";
+    private static final int MESSAGE_ID_SEARCH_CHUNK_SIZE = 100;
+    private static final int IN_MEMORY_CONTENT_THRESHOLD = 1024 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final String TEMP_FILE_PREFIX = "email-attachment-";
+    // Upper bound of the available bytes of a stream for which the encoded content buffer is pre-sized
+    private static final int MAX_BASE64_HINT = Integer.MAX_VALUE / 4 * 3;
+    // A multiple of 3, so that the encoder does not need to hold bytes between the chunks
+    private static final int READ_CHUNK_SIZE = 3 * 4096;
+    private static final ThreadLocal<byte[]> READ_BUFFER = ThreadLocal.withInitial(() -> new byte[READ_CHUNK_SIZE]);
 
     private EmailUtils() {
 
@@ -61,26 +101,78 @@ public final class EmailUtils {
 
     /**
      * Converts an input stream to a Base64 encoded string
+     * <p>
+     * The stream is read in chunks until its end, and encoded into a buffer sized from the available bytes of the
+     * stream, so that the encoded content is not copied more than once.
      *
      * @param inputStream The input stream to convert
      * @return Base64 encoded string representation of the input stream
      * @throws ContentBuilderException if an error occurs during conversion
      */
-    public static String convertInputStreamToBase64(java.io.InputStream inputStream) throws ContentBuilderException {
+    public static String convertInputStreamToBase64(InputStream inputStream) throws ContentBuilderException {
+
+        if (inputStream == null) {
+            return null;
+        }
         try {
-            if (inputStream == null) {
-                return null;
-            }
-            
-            byte[] bytes = new byte[inputStream.available()];
-            inputStream.read(bytes);
-            
-            return java.util.Base64.getEncoder().encodeToString(bytes);
-        } catch (java.io.IOException e) {
+            // available() is only a hint of the size, the stream is read until its end irrespective of it
+            int available = inputStream.available();
+            EncodedContentBuffer buffer = new EncodedContentBuffer(
+                    available > 0 && available < MAX_BASE64_HINT ? (available + 2) / 3 * 4 : BUFFER_SIZE);
+            writeBase64(inputStream, buffer);
+            return buffer.toString();
+        } catch (IOException e) {
             throw new ContentBuilderException("Error while converting input stream to Base64", e);
         }
     }
 
+    /**
+     * Writes the Base64 encoded content of an input stream to an output stream, reading the input in chunks
+     *
+     * @param inputStream  The input stream to be encoded
+     * @param outputStream The output stream to write the encoded content to. It is not closed.
+     * @throws IOException if an error occurs while reading or writing
+     */
+    public static void writeBase64(InputStream inputStream, OutputStream outputStream) throws IOException {
+
+        byte[] chunk = READ_BUFFER.get();
+        OutputStream encoder = Base64.getEncoder().wrap(new FilterOutputStream(outputStream) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Only flushes the encoder, the underlying stream is left open
+                flush();
+            }
+        });
+        int length;
+        while ((length = inputStream.read(chunk)) != -1) {
+            encoder.write(chunk, 0, length);
+        }
+        // Writes the padding of the final group
+        encoder.close();
+    }
+
+    /**
+     * Output buffer of Base64 encoded content, which is ASCII and hence converted to a string without decoding
+     */
+    private static final class EncodedContentBuffer extends ByteArrayOutputStream {
+
+        EncodedContentBuffer(int size) {
+
+            super(size);
+        }
+
+        @Override
+        public synchronized String toString() {
+
+            return new String(buf, 0, count, StandardCharsets.US_ASCII);
+        }
+    }
 
     /**
      * Tests the email connection using existing connection framework
@@ -102,31 +194,57 @@ public final class EmailUtils {
 
         String connectionName = connectionConfiguration.getConnectionName();
         EmailConnectionHandler handler = EmailConnectionHandler.getConnectionHandler();
-        if (connectionConfiguration.isOAuth2Enabled()) {
-            shutDownIfConnectionIsExpired(connectionName, handler);
-        }
         if (!handler.checkIfConnectionExists(connectionName)) {
             if (log.isDebugEnabled()) {
                 log.debug(format("Connection does not exist for connection name: %s. " +
                         "Hence a new connection will be created.", connectionName));
             }
             if (connectionConfiguration.getProtocol().getName().equalsIgnoreCase(EmailProtocol.SMTP.name())) {
-                // For SMTP protocols a connection pool is not required as they require only a session, which need not be
-                // manipulated as the connection.
-                EmailConnection connection = new EmailConnection(connectionConfiguration);
-                handler.createConnection(connectionName, connection);
+                // For SMTP protocols a pool of connected transports is created, so that emails could be sent without
+                // connecting and authenticating to the server each time.
+                handler.createConnection(connectionName, new SMTPConnectionFactory(connectionConfiguration),
+                        connectionConfiguration.getConfiguration(), connectionConfiguration.getMinIdleConnections(),
+                        connectionConfiguration.getKeepAliveInterval());
             } else {
                 // For other protocols, such as IMAP and POP3, connections to a store and folder is made which requires to
                 // handled. Hence, for these instances, we will create a connection pool to optimize the use of these
                 // connections.
                 handler.createConnection(connectionName, new EmailConnectionFactory(connectionConfiguration),
-                        connectionConfiguration.getConfiguration());
+                        connectionConfiguration.getConfiguration(), connectionConfiguration.getMinIdleConnections(),
+                        connectionConfiguration.getKeepAliveInterval());
             }
         } else {
             log.debug(format("Connection exists for connection name: %s.", connectionName));
         }
     }
 
+    /**
+     * Starts listening to the configured folders of the connection for new emails, unless the connection is already
+     * being listened to
+     *
+     * @param connectionConfiguration connection configuration
+     * @param synapseEnvironment      Synapse environment into which the new emails are injected
+     * @throws InvalidConfigurationException if the connection is not an IMAP connection
+     */
+    public static void startListeners(ConnectionConfiguration connectionConfiguration,
+                                      SynapseEnvironment synapseEnvironment) throws InvalidConfigurationException {
+
+        String connectionName = connectionConfiguration.getConnectionName();
+        EmailConnectionHandler handler = EmailConnectionHandler.getConnectionHandler();
+        if (handler.checkIfListenersExist(connectionName)) {
+            return;
+        }
+        if (!EmailProtocol.IMAP.getName().equals(connectionConfiguration.getProtocol().getName())) {
+            throw new InvalidConfigurationException("Listening to new emails is supported only for IMAP.");
+        }
+        List<MailBoxListener> listeners = new ArrayList<>();
+        for (String folder : connectionConfiguration.getIdleFolders()) {
+            listeners.add(new MailBoxListener(connectionConfiguration, folder,
+                    connectionConfiguration.getIdleSequence(), synapseEnvironment));
+        }
+        handler.startListeners(connectionName, listeners);
+    }
+
     /**
      * Retrieves the token ID defined as email:<connection_name>
      *
@@ -162,14 +280,16 @@ public final class EmailUtils {
 
         try {
             Folder folder = connection.getFolder(folderName, Folder.READ_WRITE);
-            SearchTerm searchTerm = new MessageIDTerm(emailId);
-            Message[] messages = folder.search(searchTerm);
+            Message[] messages = searchByMessageId(connection, folder, emailId);
 
             if (messages.length > 0) {
                 Message message = messages[0];
                 if (flag != null) {
                     message.setFlag(flag, true);
                     success = true;
+                    if (flag == Flags.Flag.DELETED) {
+                        connection.getMessageIdIndex().remove(folder.getFullName(), emailId);
+                    }
                     if (log.isDebugEnabled()) {
                         log.debug(format("%s flag updated for message with ID: %s...", getFlagName(flag), emailId));
                     }
@@ -186,6 +306,249 @@ public final class EmailUtils {
         return success;
     }
 
+    /**
+     * Changes the state of multiple emails by setting a flag on all of them with a single request.
+     * <p>
+     * Either the Message-IDs or the UIDs (IMAP only) of the emails should be given. The emails are resolved with as
+     * few searches as possible, the flag is set on all the resolved emails at once and the folder is expunged once
+     * if required.
+     *
+     * @param connection Mailbox connection to be used to connect to server
+     * @param folderName Mailbox name
+     * @param emailIds   Message-IDs of the emails of which the state is to be changed
+     * @param uids       UIDs of the emails of which the state is to be changed
+     * @param flag       Flag to be set
+     * @param expunge    whether to delete messages marked for deletion
+     * @return the status of the update against each given Message-ID or UID, in the given order
+     * @throws EmailConnectionException      if failed to set the flags on the messages
+     * @throws InvalidConfigurationException if the emails to be updated are not configured properly
+     */
+    public static Map<String, Boolean> changeEmailStates(MailBoxConnection connection, String folderName,
+                                                         List<String> emailIds, List<Long> uids, Flags.Flag flag,
+                                                         boolean expunge)
+            throws EmailConnectionException, InvalidConfigurationException {
+
+        if (StringUtils.isEmpty(folderName)) {
+            folderName = EmailConstants.DEFAULT_FOLDER;
+        }
+        if (emailIds.isEmpty() == uids.isEmpty()) {
+            throw new InvalidConfigurationException("Either 'Email IDs' or 'UIDs' should be configured.");
+        }
+
+        Map<String, Boolean> status = new LinkedHashMap<>();
+        try {
+            Folder folder = connection.getFolder(folderName, Folder.READ_WRITE);
+            // A message matching more than one of the given Message-IDs is updated once
+            Set<Message> messages = new LinkedHashSet<>();
+            if (!emailIds.isEmpty()) {
+                Map<String, List<Message>> messagesById = searchByMessageIds(connection, folder, emailIds);
+                for (String emailId : emailIds) {
+                    List<Message> matches = messagesById.get(normalizeMessageId(emailId));
+                    status.put(emailId, matches != null);
+                    if (matches != null) {
+                        messages.addAll(matches);
+                    }
+                }
+            } else {
+                if (!(folder instanceof IMAPFolder)) {
+                    throw new InvalidConfigurationException("Retrieving emails by UID is supported only for IMAP.");
+                }
+                long[] uidArray = uids.stream().mapToLong(Long::longValue).toArray();
+                Message[] matches = ((IMAPFolder) folder).getMessagesByUID(uidArray);
+                for (int i = 0; i < uidArray.length; i++) {
+                    boolean found = matches[i] != null && !matches[i].isExpunged();
+                    status.put(String.valueOf(uidArray[i]), found);
+                    if (found) {
+                        messages.add(matches[i]);
+                    }
+                }
+            }
+            if (!messages.isEmpty()) {
+                folder.setFlags(messages.toArray(new Message[0]), new Flags(flag), true);
+                if (log.isDebugEnabled()) {
+                    log.debug(format("%s flag updated for %d message(s)...", getFlagName(flag), messages.size()));
+                }
+            }
+            if (flag == Flags.Flag.DELETED) {
+                for (String emailId : emailIds) {
+                    connection.getMessageIdIndex().remove(folder.getFullName(), emailId);
+                }
+            }
+        } catch (MessagingException e) {
+            throw new EmailConnectionException("Error occurred while changing email state.", e);
+        } finally {
+            connection.closeFolder(expunge);
+        }
+        return status;
+    }
+
+    /**
+     * Finds the messages with the given Message-IDs.
+     * <p>
+     * Messages available in the Message-ID index are looked up by their UIDs. The rest are searched in chunks using
+     * OR'ed Message-ID terms and only the Message-ID header of the matching messages is fetched to map them. As the
+     * server matches the terms as substrings of the header, the search only narrows down the messages, which are then
+     * mapped to the Message-IDs that are equal to their header once both are normalized.
+     *
+     * @param connection Mailbox connection used to open the folder
+     * @param folder     Opened folder
+     * @param emailIds   Message-IDs of the emails
+     * @return the matching messages against the normalized Message-IDs
+     * @see #normalizeMessageId(String)
+     * @throws MessagingException if failed to retrieve the messages
+     */
+    private static Map<String, List<Message>> searchByMessageIds(MailBoxConnection connection, Folder folder,
+                                                                 List<String> emailIds) throws MessagingException {
+
+        Map<String, List<Message>> messagesById = new HashMap<>();
+        MessageIdIndex messageIdIndex = connection.getMessageIdIndex();
+        List<String> unresolvedIds = new ArrayList<>();
+        if (folder instanceof IMAPFolder) {
+            IMAPFolder imapFolder = (IMAPFolder) folder;
+            long uidValidity = imapFolder.getUIDValidity();
+            List<String> indexedIds = new ArrayList<>();
+            List<Long> indexedUids = new ArrayList<>();
+            for (String emailId : emailIds) {
+                long uid = messageIdIndex.get(folder.getFullName(), uidValidity, emailId);
+                if (uid != MessageIdIndex.UNKNOWN_UID) {
+                    indexedIds.add(emailId);
+                    indexedUids.add(uid);
+                } else {
+                    unresolvedIds.add(emailId);
+                }
+            }
+            if (!indexedUids.isEmpty()) {
+                Message[] messages = imapFolder.getMessagesByUID(
+                        indexedUids.stream().mapToLong(Long::longValue).toArray());
+                for (int i = 0; i < messages.length; i++) {
+                    if (messages[i] != null && !messages[i].isExpunged()) {
+                        messagesById.put(normalizeMessageId(indexedIds.get(i)),
+                                new ArrayList<>(Collections.singletonList(messages[i])));
+                    } else {
+                        messageIdIndex.remove(folder.getFullName(), indexedIds.get(i));
+                        unresolvedIds.add(indexedIds.get(i));
+                    }
+                }
+            }
+        } else {
+            unresolvedIds.addAll(emailIds);
+        }
+
+        FetchProfile fetchProfile = new FetchProfile();
+        fetchProfile.add(MESSAGE_ID_HEADER);
+        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        for (int from = 0; from < unresolvedIds.size(); from += MESSAGE_ID_SEARCH_CHUNK_SIZE) {
+            List<String> chunk = unresolvedIds.subList(from,
+                    Math.min(from + MESSAGE_ID_SEARCH_CHUNK_SIZE, unresolvedIds.size()));
+            SearchTerm[] terms = new SearchTerm[chunk.size()];
+            Set<String> chunkIds = new HashSet<>();
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = new MessageIDTerm(chunk.get(i));
+                chunkIds.add(normalizeMessageId(chunk.get(i)));
+            }
+            Message[] messages = folder.search(terms.length == 1 ? terms[0] : new OrTerm(terms));
+            folder.fetch(messages, fetchProfile);
+            for (Message message : messages) {
+                String[] headers = message.getHeader(MESSAGE_ID_HEADER);
+                if (headers == null || headers.length == 0) {
+                    continue;
+                }
+                String emailId = headers[0].trim();
+                // The server search matches substrings of the header, so only exact Message-IDs are taken
+                String normalizedId = normalizeMessageId(emailId);
+                if (chunkIds.contains(normalizedId)) {
+                    messagesById.computeIfAbsent(normalizedId, id -> new ArrayList<>()).add(message);
+                }
+                if (folder instanceof IMAPFolder) {
+                    IMAPFolder imapFolder = (IMAPFolder) folder;
+                    messageIdIndex.put(folder.getFullName(), imapFolder.getUIDValidity(), emailId,
+                            imapFolder.getUID(message));
+                }
+            }
+        }
+        return messagesById;
+    }
+
+    /**
+     * Normalizes a Message-ID to compare it with the Message-ID headers matched by a search, ignoring the case, the
+     * angle brackets and the whitespace
+     *
+     * @param messageId Message-ID
+     * @return the normalized Message-ID
+     */
+    private static String normalizeMessageId(String messageId) {
+
+        return StringUtils.deleteWhitespace(messageId).replace("<", "").replace(">", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds the messages with the given Message-ID.
+     * <p>
+     * For IMAP folders, the message is first looked up by its UID from the Message-ID index of the connection, which
+     * avoids a search on the server. If the message is not indexed, the folder is searched and the result is indexed.
+     *
+     * @param connection Mailbox connection used to open the folder
+     * @param folder     Opened folder
+     * @param emailId    Message-ID of the email
+     * @return the messages with the given Message-ID
+     * @throws MessagingException if failed to retrieve the messages
+     */
+    public static Message[] searchByMessageId(MailBoxConnection connection, Folder folder, String emailId)
+            throws MessagingException {
+
+        MessageIdIndex messageIdIndex = connection.getMessageIdIndex();
+        if (folder instanceof IMAPFolder) {
+            IMAPFolder imapFolder = (IMAPFolder) folder;
+            long uid = messageIdIndex.get(folder.getFullName(), imapFolder.getUIDValidity(), emailId);
+            if (uid != MessageIdIndex.UNKNOWN_UID) {
+                Message message = imapFolder.getMessageByUID(uid);
+                if (message != null && !message.isExpunged()) {
+                    if (log.isDebugEnabled()) {
+                        log.debug(format("Found message with ID: %s by UID: %d.", emailId, uid));
+                    }
+                    return new Message[]{message};
+                }
+                messageIdIndex.remove(folder.getFullName(), emailId);
+            }
+        }
+        SearchTerm searchTerm = new MessageIDTerm(emailId);
+        Message[] messages = folder.search(searchTerm);
+        if (messages.length == 1 && folder instanceof IMAPFolder) {
+            IMAPFolder imapFolder = (IMAPFolder) folder;
+            messageIdIndex.put(folder.getFullName(), imapFolder.getUIDValidity(), emailId,
+                    imapFolder.getUID(messages[0]));
+        }
+        return messages;
+    }
+
+    /**
+     * Adds the UIDs of the listed IMAP messages to the Message-ID index of the connection
+     *
+     * @param connection Mailbox connection used to list the messages
+     * @param folder     Folder containing the messages
+     * @param messages   Listed messages
+     * @param emails     Parsed emails in the same order as the messages
+     * @throws MessagingException if failed to retrieve the UIDs
+     */
+    public static void indexMessages(MailBoxConnection connection, Folder folder, List<Message> messages,
+                                     List<EmailMessage> emails) throws MessagingException {
+
+        if (!(folder instanceof IMAPFolder) || messages.isEmpty()) {
+            return;
+        }
+        IMAPFolder imapFolder = (IMAPFolder) folder;
+        FetchProfile fetchProfile = new FetchProfile();
+        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        Message[] messageArray = messages.toArray(new Message[0]);
+        // UIDs that are already available are not fetched again
+        imapFolder.fetch(messageArray, fetchProfile);
+        long uidValidity = imapFolder.getUIDValidity();
+        for (int i = 0; i < messageArray.length; i++) {
+            connection.getMessageIdIndex().put(folder.getFullName(), uidValidity, emails.get(i).getEmailId(),
+                    imapFolder.getUID(messageArray[i]));
+        }
+    }
+
     /**
      * Retrieve flag name by mask
      *
@@ -221,11 +584,10 @@ public final class EmailUtils {
             if (log.isDebugEnabled()) {
                 log.debug(format("Retrieving messages from Mail folder: %s ...", folderName));
             }
-            SearchTerm searchTerm = new MessageIDTerm(emailId);
-            IMAPMessage[] messages = (IMAPMessage[]) mailbox.search(searchTerm);
+            Message[] messages = searchByMessageId(connection, mailbox, emailId);
             if (messages.length == 1) {
                 Thread.currentThread().setContextClassLoader(javax.mail.Message.class.getClassLoader());
-                parsedEmail = new EmailMessage(messages[0]);
+                parsedEmail = new EmailMessage((MimeMessage) messages[0]);
             } else if (messages.length == 0) {
                 throw new EmailParsingException(format("No email found with ID: %s.", emailId), null);
             } else {
@@ -270,6 +632,187 @@ public final class EmailUtils {
 
 
 
+    /**
+     * Retrieves an attachment of an email without reading the rest of the email.
+     * <p>
+     * For IMAP folders only the body structure of the email and the content of the requested part are fetched. The
+     * content is copied while the folder is open to memory when it is small, or otherwise to a temporary file which
+     * is deleted once the content is read. For other folders the whole email is parsed.
+     *
+     * @param connection      Mailbox connection to be used to connect to server
+     * @param emailId         Email ID of the message containing the attachment
+     * @param folderName      Mailbox name
+     * @param attachmentIndex Index of the attachment to be retrieved
+     * @return Attachment in the relevant index
+     */
+    public static Attachment getEmailAttachment(MailBoxConnection connection, String emailId, String folderName,
+                                                String attachmentIndex)
+            throws EmailConnectionException, EmailParsingException, InvalidConfigurationException {
+
+        String error = "Failed to retrieve attachment.";
+        int index;
+        try {
+            index = Integer.parseInt(attachmentIndex);
+        } catch (NumberFormatException e) {
+            throw new InvalidConfigurationException(format("%s Invalid index set for attachment index.", error), e);
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Folder mailbox = connection.getFolder(folderName, Folder.READ_ONLY);
+            Message[] messages = searchByMessageId(connection, mailbox, emailId);
+            if (messages.length == 0) {
+                throw new EmailParsingException(format("No email found with ID: %s.", emailId), null);
+            } else if (messages.length > 1) {
+                throw new EmailParsingException(format("Multiple emails found with ID: %s.", emailId), null);
+            }
+            Thread.currentThread().setContextClassLoader(javax.mail.Message.class.getClassLoader());
+            if (!(mailbox instanceof IMAPFolder)) {
+                return getEmailAttachment(new EmailMessage((MimeMessage) messages[0]), attachmentIndex);
+            }
+            FetchProfile fetchProfile = new FetchProfile();
+            fetchProfile.add(FetchProfile.Item.CONTENT_INFO);
+            mailbox.fetch(messages, fetchProfile);
+            List<Part> attachmentParts = getAttachmentParts(messages[0]);
+            if (attachmentParts.isEmpty()) {
+                throw new InvalidConfigurationException(format("%s There are no attachments in the email.", error));
+            } else if (index < 0 || index >= attachmentParts.size()) {
+                throw new InvalidConfigurationException(format("%s Invalid index set for attachment index.", error));
+            }
+            Part part = attachmentParts.get(index);
+            Attachment attachment = getAttachmentDescriptor(part);
+            attachment.setContent(getAttachmentContent(part));
+            return attachment;
+        } catch (MessagingException | IOException e) {
+            throw new EmailConnectionException("Error occurred when retrieving attachment.", e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            connection.closeFolder(false);
+        }
+    }
+
+    /**
+     * Copies content to memory if it is small or to a temporary file otherwise
+     *
+     * @param content Content to be copied
+     * @param size    Expected size of the content, or -1 if unknown
+     * @return Input stream of the copied content
+     * @throws IOException if failed to copy the content
+     */
+    private static InputStream copyContent(InputStream content, int size) throws IOException {
+
+        if (size >= 0 && size <= IN_MEMORY_CONTENT_THRESHOLD) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(size);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = content.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+            return new ByteArrayInputStream(outputStream.toByteArray());
+        }
+        Path file = Files.createTempFile(TEMP_FILE_PREFIX, null);
+        try {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            return new TemporaryFileInputStream(file);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Collects the parts of a message that are treated as attachments.
+     * <p>
+     * The parts are collected in the same order as the {@link org.apache.commons.mail.util.MimeMessageParser},
+     * i.e. the first inline plain text part and the first inline HTML part are considered as the email body, multipart
+     * content is traversed recursively and every other part is considered as an attachment. For IMAP messages only the
+     * body structure is read, hence the content of the parts are not downloaded.
+     *
+     * @param part Message or body part to be traversed
+     * @return List of attachment parts
+     * @throws MessagingException if failed to read the structure of the message
+     * @throws IOException        if failed to read the multipart content
+     */
+    public static List<Part> getAttachmentParts(Part part) throws MessagingException, IOException {
+
+        List<Part> attachmentParts = new ArrayList<>();
+        collectParts(part, attachmentParts, new Part[2]);
+        return attachmentParts;
+    }
+
+    /**
+     * Finds the parts of a message that are treated as the email body, i.e. the first inline plain text part and the
+     * first inline HTML part, in the same way as {@link #getAttachmentParts(Part)}. For IMAP messages only the body
+     * structure is read, hence the content of the parts are not downloaded.
+     *
+     * @param part Message or body part to be traversed
+     * @return the plain text part and the HTML part, either of which is null if not found
+     * @throws MessagingException if failed to read the structure of the message
+     * @throws IOException        if failed to read the multipart content
+     */
+    public static Part[] getBodyParts(Part part) throws MessagingException, IOException {
+
+        Part[] bodyParts = new Part[2];
+        collectParts(part, new ArrayList<>(), bodyParts);
+        return bodyParts;
+    }
+
+    private static void collectParts(Part part, List<Part> attachmentParts, Part[] bodyParts)
+            throws MessagingException, IOException {
+
+        boolean isAttachment = Part.ATTACHMENT.equalsIgnoreCase(part.getDisposition());
+        if (bodyParts[0] == null && !isAttachment && part.isMimeType("text/plain")) {
+            bodyParts[0] = part;
+        } else if (bodyParts[1] == null && !isAttachment && part.isMimeType("text/html")) {
+            bodyParts[1] = part;
+        } else if (part.isMimeType("multipart/*")) {
+            Multipart multipart = (Multipart) part.getContent();
+            for (int i = 0; i < multipart.getCount(); i++) {
+                collectParts(multipart.getBodyPart(i), attachmentParts, bodyParts);
+            }
+        } else {
+            attachmentParts.add(part);
+        }
+    }
+
+    /**
+     * Reads the content of an attachment part, so that it remains available once the folder is closed
+     *
+     * @param part Attachment part
+     * @return Input stream of the copied content
+     * @throws MessagingException if failed to retrieve the content
+     * @throws IOException        if failed to copy the content
+     */
+    public static InputStream getAttachmentContent(Part part) throws MessagingException, IOException {
+
+        try (InputStream content = part.getInputStream()) {
+            return copyContent(content, part.getSize());
+        }
+    }
+
+    /**
+     * Creates an attachment descriptor containing the name and the content type of the attachment part without
+     * reading its content
+     *
+     * @param part Attachment part
+     * @return Attachment without content
+     * @throws MessagingException if failed to read the part headers
+     * @throws IOException        if failed to decode the file name
+     */
+    public static Attachment getAttachmentDescriptor(Part part) throws MessagingException, IOException {
+
+        Attachment attachment = new Attachment();
+        String fileName = part.getFileName();
+        if (StringUtils.isNotEmpty(fileName)) {
+            attachment.setName(MimeUtility.decodeText(fileName));
+        }
+        String contentType = part.getContentType();
+        if (contentType != null && contentType.indexOf(';') >= 0) {
+            contentType = contentType.substring(0, contentType.indexOf(';'));
+        }
+        attachment.setContentType(contentType);
+        return attachment;
+    }
+
     /**
      * Retrieves connection name from message context if configured as configKey attribute
      * or from the template parameter
@@ -297,13 +840,4 @@ public final class EmailUtils {
         messageContext.setProperty(ResponseConstants.PROPERTY_ERROR_CODE, error.getErrorCode());
         messageContext.setProperty(ResponseConstants.PROPERTY_ERROR_MESSAGE, error.getErrorDetail());
     }
-
-    private static void shutDownIfConnectionIsExpired(String connectionName, EmailConnectionHandler handler) {
-
-        log.debug(format("Checking if token generated on connection %s is expired", connectionName));
-        if (OAuthUtils.checkIfTokenExpired(getTokenID(connectionName))) {
-            log.debug(format("Token generated on %s is expired. Hence shutting down the connection", connectionName));
-            handler.shutDownConnection(connectionName);
-        }
-    }
 }
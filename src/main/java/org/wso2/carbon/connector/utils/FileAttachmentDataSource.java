@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.utils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import javax.activation.DataSource;
+
+/**
+ * Data Source of an attachment read from a file.
+ * <p>
+ * The file is not loaded into memory. It is read each time the content is requested, which happens when the email
+ * is written to the server, so that the email could also be written more than once.
+ */
+public class FileAttachmentDataSource implements DataSource {
+
+    private final File file;
+    private final String contentType;
+
+    FileAttachmentDataSource(File file, String contentType) throws FileNotFoundException {
+
+        // Fails when building the email, rather than when sending it, if the file cannot be read
+        if (!file.isFile() || !file.canRead()) {
+            throw new FileNotFoundException(String.format("File %s does not exist or is not readable.",
+                    file.getPath()));
+        }
+        this.file = file;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+
+        return new BufferedInputStream(Files.newInputStream(file.toPath()));
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+
+        throw new UnsupportedOperationException(FileAttachmentDataSource.class.getName() + " does not provide an " +
+                "OutputStream");
+    }
+
+    @Override
+    public String getContentType() {
+
+        return contentType;
+    }
+
+    @Override
+    public String getName() {
+
+        return file.getName();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.utils;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Input stream of a JSON payload which is written part by part as the stream is read. Nothing is written until the
+ * stream is first read, such as when the response is sent, and only the part being read is held in memory.
+ */
+class JsonPayloadInputStream extends InputStream {
+
+    private final AbstractEmailConnectorOperation.JsonPayloadWriter payloadWriter;
+    private final PartBuffer buffer = new PartBuffer();
+    private final JsonWriter writer;
+    private int position;
+    private boolean complete;
+
+    JsonPayloadInputStream(AbstractEmailConnectorOperation.JsonPayloadWriter payloadWriter) {
+
+        this.payloadWriter = payloadWriter;
+        this.writer = new JsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        if (!fill()) {
+            return -1;
+        }
+        return buffer.byteAt(position++) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.size() - position);
+        buffer.copyTo(position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+
+        return buffer.size() - position;
+    }
+
+    @Override
+    public void close() {
+
+        // The remaining parts are not written
+        complete = true;
+        buffer.reset();
+        position = 0;
+    }
+
+    /**
+     * Writes the next parts of the payload until there are bytes to be read
+     *
+     * @return true if there are bytes to be read, false if the payload has been read completely
+     * @throws IOException if failed to write the payload
+     */
+    private boolean fill() throws IOException {
+
+        while (position >= buffer.size()) {
+            if (complete) {
+                return false;
+            }
+            buffer.reset();
+            position = 0;
+            complete = !payloadWriter.writeNext(writer);
+            if (complete) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Byte buffer of a part of the payload, of which the content is read without copying the whole buffer
+     */
+    private static class PartBuffer extends ByteArrayOutputStream {
+
+        PartBuffer() {
+
+            super(8192);
+        }
+
+        byte byteAt(int index) {
+
+            return buf[index];
+        }
+
+        void copyTo(int from, byte[] bytes, int offset, int length) {
+
+            System.arraycopy(buf, from, bytes, offset, length);
+        }
+    }
+}
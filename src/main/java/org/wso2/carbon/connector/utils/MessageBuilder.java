@@ -17,7 +17,6 @@
  */
 package org.wso2.carbon.connector.utils;
 
-import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.tika.Tika;
@@ -26,17 +25,13 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.wso2.carbon.connector.exception.InvalidConfigurationException;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Map;
-import java.util.regex.Pattern;
 import javax.activation.DataHandler;
+import javax.activation.DataSource;
 
 import javax.mail.BodyPart;
 import javax.mail.Message;
@@ -64,12 +59,13 @@ public final class MessageBuilder {
     private static final String DEFAULT_CONTENT_TYPE = "text/html";
     private static final String DEFAULT_ENCODING = "UTF-8";
     private static final String DEFAULT_CONTENT_TRANSFER_ENCODING = "Base64";
-    private static final String REGEX = "([A-Za-z0-9+/]{4})*([A-Za-z0-9+/]{4}|[A-Za-z0-9+/]{3}=|[A-Za-z0-9+/]{2}==)";
     public static final String FILE_PATH = "filePath";
     public static final String BASE64_CONTENT = "base64Content";
     public static final String CONTENT_ID = "contentID";
     public static final String FILE_NAME = "fileName";
-    private static final Pattern pattern = Pattern.compile(REGEX);
+    private static final String DEFAULT_ATTACHMENT_CONTENT_TYPE = "application/octet-stream";
+    // Tika is thread safe, and loading its MIME types registry for each attachment is costly
+    private static final Tika TIKA = new Tika();
 
     private final MimeMessage message;
 
@@ -346,9 +342,9 @@ public final class MessageBuilder {
             String contentId = inlineImage.get(CONTENT_ID).toString();
             String fileName = inlineImage.get(FILE_NAME).toString();
 
-            byte[] rawImage = Base64.decodeBase64(base64Content.getBytes());
             String imageType = "image/".concat(FilenameUtils.getExtension(fileName));
-            ByteArrayDataSource imageDataSource = new ByteArrayDataSource(rawImage, imageType);
+            Base64AttachmentDataSource imageDataSource = new Base64AttachmentDataSource(fileName, base64Content,
+                    imageType);
 
             imagePart.setDataHandler(new DataHandler(imageDataSource));
             imagePart.setHeader("Content-ID", "<".concat(contentId).concat(">"));
@@ -366,9 +362,8 @@ public final class MessageBuilder {
             String filePath = inlineImage.get(FILE_PATH).toString();
             String contentId = inlineImage.get(CONTENT_ID).toString();
 
-            byte[] fileContent = Files.readAllBytes(Paths.get(filePath));
             String imageType = "image/".concat(FilenameUtils.getExtension(filePath));
-            ByteArrayDataSource imageDataSource = new ByteArrayDataSource(fileContent, imageType);
+            FileAttachmentDataSource imageDataSource = new FileAttachmentDataSource(new File(filePath), imageType);
 
             imagePart.setDataHandler(new DataHandler(imageDataSource));
             imagePart.setHeader("Content-ID", "<".concat(contentId).concat(">"));
@@ -407,20 +402,7 @@ public final class MessageBuilder {
      */
     private void addAttachment(MimeMultipart multipart, String filePath) throws MessagingException, IOException {
 
-        MimeBodyPart part = new MimeBodyPart();
-        File file = new File(filePath);
-        try (InputStream fin = new FileInputStream(file)) {
-            part.setDisposition(ATTACHMENT);
-            part.setFileName(file.getName());
-            Tika tika = new Tika();
-            String fileContentType = tika.detect(file);
-            DataHandler dataHandler = new DataHandler(new EmailAttachmentDataSource(file.getName(), fin,
-                    fileContentType));
-            part.setDataHandler(dataHandler);
-            part.setHeader(CONTENT_TYPE_HEADER, dataHandler.getContentType());
-            part.setHeader(CONTENT_TRANSFER_ENCODING_HEADER, this.contentTransferEncoding);
-            multipart.addBodyPart(part);
-        }
+        addAttachment(multipart, filePath, null);
     }
 
     /**
@@ -434,29 +416,98 @@ public final class MessageBuilder {
     private void addAttachment(MimeMultipart multipart, JSONObject attachment) throws MessagingException, IOException {
 
         try {
+            String contentType = attachment.optString(EmailConstants.ATTACHMENT_CONTENT_TYPE, null);
+            if (attachment.has(FILE_PATH)) {
+                addAttachment(multipart, attachment.getString(FILE_PATH), contentType);
+                return;
+            }
             String attachmentName = (String) attachment.get(EmailConstants.ATTACHMENT_FILE_NAME);
             MimeBodyPart part = new MimeBodyPart();
             String fileContent = (String) attachment.get(EmailConstants.ATTACHMENT_FILE_CONTENT);
-            try (InputStream bain = new ByteArrayInputStream(isBase64(fileContent) ?
-                    Base64.decodeBase64(fileContent.getBytes()) : fileContent.getBytes())) {
-                part.setDisposition(ATTACHMENT);
-                part.setFileName(attachmentName);
-                Tika tika = new Tika();
-                String fileContentType = tika.detect(bain);
-                DataHandler dataHandler = new DataHandler(new EmailAttachmentDataSource(attachmentName, bain,
-                        fileContentType));
-                part.setDataHandler(dataHandler);
-                part.setHeader(CONTENT_TYPE_HEADER, dataHandler.getContentType());
-                part.setHeader(CONTENT_TRANSFER_ENCODING_HEADER, this.contentTransferEncoding);
-                multipart.addBodyPart(part);
+            DataSource dataSource;
+            if (Base64AttachmentDataSource.isBase64(fileContent)) {
+                // Decoded while the email is written, instead of being held decoded in memory
+                dataSource = new Base64AttachmentDataSource(attachmentName, fileContent,
+                        StringUtils.isEmpty(contentType) ? detectContentType(attachmentName,
+                                new Base64AttachmentDataSource(attachmentName, fileContent, null)) : contentType);
+            } else {
+                byte[] content = fileContent.getBytes();
+                ByteArrayDataSource byteArrayDataSource = new ByteArrayDataSource(content,
+                        StringUtils.isEmpty(contentType) ? detectContentType(attachmentName, content) : contentType);
+                byteArrayDataSource.setName(attachmentName);
+                dataSource = byteArrayDataSource;
             }
+            part.setDisposition(ATTACHMENT);
+            part.setFileName(attachmentName);
+            DataHandler dataHandler = new DataHandler(dataSource);
+            part.setDataHandler(dataHandler);
+            part.setHeader(CONTENT_TYPE_HEADER, dataHandler.getContentType());
+            part.setHeader(CONTENT_TRANSFER_ENCODING_HEADER, this.contentTransferEncoding);
+            multipart.addBodyPart(part);
         } catch (JSONException e) {
             throw new IOException("Invalid JSON data format.", e);
         }
     }
 
-    private boolean isBase64(String stringBase64){
-        return pattern.matcher(stringBase64).matches();
+    /**
+     * Detects the content type of an attachment from its name, or from its content if the name is not conclusive
+     *
+     * @param name    Name of the attachment
+     * @param content Content of the attachment
+     * @return the content type
+     */
+    private static String detectContentType(String name, byte[] content) {
+
+        String contentType = detectContentType(name);
+        return contentType != null ? contentType : TIKA.detect(content, name);
+    }
+
+    /**
+     * Detects the content type of an attachment from its name, or from the beginning of its content if the name is not
+     * conclusive
+     *
+     * @param name       Name of the attachment
+     * @param dataSource Data source of the content of the attachment
+     * @return the content type
+     * @throws IOException if an error occurred while reading the content
+     */
+    private static String detectContentType(String name, DataSource dataSource) throws IOException {
+
+        String contentType = detectContentType(name);
+        if (contentType != null) {
+            return contentType;
+        }
+        try (InputStream content = dataSource.getInputStream()) {
+            return TIKA.detect(content, name);
+        }
+    }
+
+    /**
+     * Detects the content type of a file from its name, or from its content if the name is not conclusive
+     *
+     * @param file File of the attachment
+     * @return the content type
+     * @throws IOException if an error occurred while reading the file
+     */
+    private static String detectContentType(File file) throws IOException {
+
+        String contentType = detectContentType(file.getName());
+        return contentType != null ? contentType : TIKA.detect(file);
+    }
+
+    /**
+     * Detects the content type from the extension of a name, which does not require reading the content
+     *
+     * @param name Name of the attachment
+     * @return the content type, or null if it could not be determined from the name
+     */
+    private static String detectContentType(String name) {
+
+        if (StringUtils.isEmpty(name)) {
+            return null;
+        }
+        String contentType = TIKA.detect(name);
+        return DEFAULT_ATTACHMENT_CONTENT_TYPE.equals(contentType) ? null : contentType;
     }
 
     /**
@@ -464,7 +515,7 @@ public final class MessageBuilder {
      *
      * @param multipart   Multi part body the messages should be added to
      * @param filePath    File path of the attachment
-     * @param contentType Content Type of the attachment
+     * @param contentType Content Type of the attachment, or null to detect it
      * @throws MessagingException if failed to set attachments
      * @throws IOException        if an error occurred while reading attachment content
      */
@@ -473,14 +524,15 @@ public final class MessageBuilder {
 
         MimeBodyPart part = new MimeBodyPart();
         File file = new File(filePath);
-        try (InputStream fin = new FileInputStream(file)) {
-            part.setDisposition(ATTACHMENT);
-            part.setFileName(file.getName());
-            DataHandler dataHandler = new DataHandler(new EmailAttachmentDataSource(file.getName(), fin, contentType));
-            part.setDataHandler(dataHandler);
-            part.setHeader(CONTENT_TYPE_HEADER, dataHandler.getContentType());
-            part.setHeader(CONTENT_TRANSFER_ENCODING_HEADER, this.contentTransferEncoding);
-            multipart.addBodyPart(part);
+        if (StringUtils.isEmpty(contentType)) {
+            contentType = detectContentType(file);
         }
+        part.setDisposition(ATTACHMENT);
+        part.setFileName(file.getName());
+        DataHandler dataHandler = new DataHandler(new FileAttachmentDataSource(file, contentType));
+        part.setDataHandler(dataHandler);
+        part.setHeader(CONTENT_TYPE_HEADER, dataHandler.getContentType());
+        part.setHeader(CONTENT_TRANSFER_ENCODING_HEADER, this.contentTransferEncoding);
+        multipart.addBodyPart(part);
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.utils;
+
+import com.sun.mail.imap.IMAPFolder;
+import org.wso2.carbon.connector.exception.EmailParsingException;
+import org.wso2.carbon.connector.pojo.EmailMessage;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import javax.mail.FetchProfile;
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * Parses the content of a list of messages in parallel on a shared, bounded pool of threads.
+ * <p>
+ * The messages are downloaded one after the other by the calling thread, as a mailbox connection serves a single
+ * request at a time, and are parsed by the pool while the next ones are downloaded. The raw content of the messages
+ * being parsed is held in memory, hence the total size of the messages in flight across all the requests is capped.
+ */
+public final class ParallelMessageParser {
+
+    private static final int PARSING_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    // Maximum size of the messages in flight, in kilobytes
+    private static final int MAX_IN_FLIGHT_KB = 32 * 1024;
+    private static final Semaphore IN_FLIGHT_KB = new Semaphore(MAX_IN_FLIGHT_KB, true);
+    private static final ExecutorService PARSING_EXECUTOR = Executors.newFixedThreadPool(PARSING_THREADS,
+            runnable -> {
+                Thread thread = new Thread(runnable, "email-connector-message-parser");
+                thread.setDaemon(true);
+                // Jakarta Mail looks up the data content handlers using the context class loader
+                thread.setContextClassLoader(Message.class.getClassLoader());
+                return thread;
+            });
+
+    private ParallelMessageParser() {
+
+    }
+
+    /**
+     * Gets email content and attachments, parsing the messages in parallel
+     *
+     * @param messages List of messages to be parsed
+     * @return Parsed messages, in the order of the given messages
+     * @throws EmailParsingException if failed to retrieve or parse content
+     */
+    public static List<EmailMessage> parse(List<Message> messages) throws EmailParsingException {
+
+        List<Future<EmailMessage>> results = new ArrayList<>(messages.size());
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(Message.class.getClassLoader());
+            prefetch(messages);
+            for (Message message : messages) {
+                int permits = getPermits(message);
+                IN_FLIGHT_KB.acquire(permits);
+                try {
+                    Date receivedDate = message.getReceivedDate();
+                    // Downloads the whole message, so that parsing does not need the connection
+                    MimeMessage content = new MimeMessage((MimeMessage) message);
+                    results.add(PARSING_EXECUTOR.submit(() -> parse(content, receivedDate, permits)));
+                } catch (MessagingException | RuntimeException e) {
+                    IN_FLIGHT_KB.release(permits);
+                    throw new EmailParsingException("Error occurred while retrieving message data.", e);
+                }
+            }
+            List<EmailMessage> messagesList = new ArrayList<>(results.size());
+            for (Future<EmailMessage> result : results) {
+                messagesList.add(result.get());
+            }
+            return messagesList;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmailParsingException("Interrupted while parsing messages.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof EmailParsingException) {
+                throw (EmailParsingException) e.getCause();
+            }
+            throw new EmailParsingException("Error occurred while retrieving message data.", e.getCause());
+        } finally {
+            Thread.currentThread().setContextClassLoader(classLoader);
+        }
+    }
+
+    /**
+     * Parses a downloaded message and releases its share of the in flight size
+     */
+    private static EmailMessage parse(MimeMessage content, Date receivedDate, int permits)
+            throws EmailParsingException {
+
+        try {
+            EmailMessage emailMessage = new EmailMessage(content);
+            // The received date is known only by the original message
+            if (receivedDate != null) {
+                emailMessage.setReceivedDate(receivedDate);
+            }
+            return emailMessage;
+        } finally {
+            IN_FLIGHT_KB.release(permits);
+        }
+    }
+
+    /**
+     * Fetches the sizes and the received dates of all the messages in a single request
+     */
+    private static void prefetch(List<Message> messages) throws EmailParsingException {
+
+        Folder folder = messages.get(0).getFolder();
+        if (folder == null) {
+            return;
+        }
+        FetchProfile fetchProfile = new FetchProfile();
+        fetchProfile.add(FetchProfile.Item.SIZE);
+        if (folder instanceof IMAPFolder) {
+            fetchProfile.add(IMAPFolder.FetchProfileItem.INTERNALDATE);
+        }
+        try {
+            folder.fetch(messages.toArray(new Message[0]), fetchProfile);
+        } catch (MessagingException e) {
+            throw new EmailParsingException("Error occurred while retrieving message data.", e);
+        }
+    }
+
+    /**
+     * Gets the share of the in flight size of a message. A message larger than the maximum in flight size is
+     * parsed alone.
+     */
+    private static int getPermits(Message message) throws EmailParsingException {
+
+        try {
+            long size = message.getSize();
+            return (int) Math.min(MAX_IN_FLIGHT_KB, Math.max(1, (size + 1023) / 1024));
+        } catch (MessagingException e) {
+            throw new EmailParsingException("Error occurred while retrieving message size.", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC (http://www.wso2.com).
+ *
+ * WSO2 LLC licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.connector.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Input stream over a temporary file, which deletes the file once the stream is fully read or closed. If the stream is
+ * discarded without being read or closed, such as a payload which is never consumed, the file is deleted by a reaper
+ * thread once the stream is garbage collected.
+ */
+public class TemporaryFileInputStream extends FilterInputStream {
+
+    private static final Log log = LogFactory.getLog(TemporaryFileInputStream.class);
+    // Streams which are garbage collected before being closed
+    private static final ReferenceQueue<TemporaryFileInputStream> ABANDONED_STREAMS = new ReferenceQueue<>();
+    // Keeps the references of the open streams reachable until they are enqueued
+    private static final Set<TemporaryFile> OPEN_FILES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Thread reaper = new Thread(TemporaryFileInputStream::deleteAbandonedFiles, "email-connector-temp-file-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    private final TemporaryFile temporaryFile;
+    private boolean closed;
+
+    public TemporaryFileInputStream(Path file) throws IOException {
+
+        super(Files.newInputStream(file));
+        this.temporaryFile = new TemporaryFile(this, in, file);
+        OPEN_FILES.add(temporaryFile);
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        int value = closed ? -1 : super.read();
+        if (value == -1) {
+            close();
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+
+        int count = closed ? -1 : super.read(buffer, offset, length);
+        if (count == -1) {
+            close();
+        }
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+
+        return closed ? 0 : super.available();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+        OPEN_FILES.remove(temporaryFile);
+        temporaryFile.clear();
+        temporaryFile.delete();
+    }
+
+    /**
+     * Deletes the files of the streams which are garbage collected before being closed
+     */
+    private static void deleteAbandonedFiles() {
+
+        while (true) {
+            try {
+                TemporaryFile temporaryFile = (TemporaryFile) ABANDONED_STREAMS.remove();
+                if (OPEN_FILES.remove(temporaryFile)) {
+                    log.warn(format("Deleting temporary file: %s of which the stream was not closed.",
+                            temporaryFile.file));
+                    temporaryFile.delete();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.warn("Failed to close abandoned temporary file.", e);
+            }
+        }
+    }
+
+    /**
+     * Temporary file of a stream, which is enqueued once the stream is garbage collected. It holds the underlying file
+     * stream, so that the file could be closed and deleted without the stream.
+     */
+    private static class TemporaryFile extends PhantomReference<TemporaryFileInputStream> {
+
+        private final InputStream fileStream;
+        private final Path file;
+
+        TemporaryFile(TemporaryFileInputStream stream, InputStream fileStream, Path file) {
+
+            super(stream, ABANDONED_STREAMS);
+            this.fileStream = fileStream;
+            this.file = file;
+        }
+
+        /**
+         * Closes the file stream and deletes the file
+         *
+         * @throws IOException if failed to close the file stream
+         */
+        void delete() throws IOException {
+
+            try {
+                fileStream.close();
+            } finally {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn(format("Failed to delete temporary file: %s.", file), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.wso2.carbon.connector.connection;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Test class for the index of the UIDs of the emails against their Message-IDs
+ */
+public class MessageIdIndexTest {
+
+    private static final String FOLDER = "INBOX";
+    private static final String MESSAGE_ID = "<1.email@localhost>";
+
+    @Test(description = "Test retrieving an indexed UID")
+    public void testGet() {
+
+        MessageIdIndex index = new MessageIdIndex();
+        index.put(FOLDER, 1, MESSAGE_ID, 10);
+        assertEquals(index.get(FOLDER, 1, MESSAGE_ID), 10);
+        assertEquals(index.get(FOLDER, 1, "<2.email@localhost>"), MessageIdIndex.UNKNOWN_UID);
+        assertEquals(index.get("Archive", 1, MESSAGE_ID), MessageIdIndex.UNKNOWN_UID);
+    }
+
+    @Test(description = "Test that the UIDs of a folder are discarded when its UIDVALIDITY changes")
+    public void testUidValidityReset() {
+
+        MessageIdIndex index = new MessageIdIndex();
+        index.put(FOLDER, 1, MESSAGE_ID, 10);
+        index.put("Archive", 1, MESSAGE_ID, 20);
+        assertEquals(index.get(FOLDER, 2, MESSAGE_ID), MessageIdIndex.UNKNOWN_UID);
+        // The UIDs of the previous UIDVALIDITY are not restored
+        assertEquals(index.get(FOLDER, 1, MESSAGE_ID), MessageIdIndex.UNKNOWN_UID);
+        // The other folders are not affected
+        assertEquals(index.get("Archive", 1, MESSAGE_ID), 20);
+    }
+
+    @Test(description = "Test that the least recently used entry is evicted once a folder is full")
+    public void testEviction() {
+
+        MessageIdIndex index = new MessageIdIndex(2);
+        index.put(FOLDER, 1, "<1.email@localhost>", 1);
+        index.put(FOLDER, 1, "<2.email@localhost>", 2);
+        index.get(FOLDER, 1, "<1.email@localhost>");
+        index.put(FOLDER, 1, "<3.email@localhost>", 3);
+        assertEquals(index.get(FOLDER, 1, "<1.email@localhost>"), 1);
+        assertEquals(index.get(FOLDER, 1, "<2.email@localhost>"), MessageIdIndex.UNKNOWN_UID);
+        assertEquals(index.get(FOLDER, 1, "<3.email@localhost>"), 3);
+    }
+
+    @Test(description = "Test removing an email from the index")
+    public void testRemove() {
+
+        MessageIdIndex index = new MessageIdIndex();
+        index.put(FOLDER, 1, MESSAGE_ID, 10);
+        index.remove(FOLDER, MESSAGE_ID);
+        assertEquals(index.get(FOLDER, 1, MESSAGE_ID), MessageIdIndex.UNKNOWN_UID);
+    }
+}
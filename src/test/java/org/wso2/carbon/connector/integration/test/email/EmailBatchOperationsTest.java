@@ -0,0 +1,144 @@
+package org.wso2.carbon.connector.integration.test.email;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.automation.test.utils.http.client.HttpRequestUtil;
+import org.wso2.carbon.automation.test.utils.http.client.HttpResponse;
+import org.wso2.carbon.connector.integration.test.email.utils.EmailTestUtils;
+import org.wso2.carbon.connector.integration.test.email.utils.GreenMailServer;
+import org.wso2.connector.integration.test.base.ConnectorIntegrationTestBase;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import javax.mail.Flags;
+import javax.mail.internet.MimeMessage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test class for the batch operations changing the state of multiple emails
+ */
+public class EmailBatchOperationsTest extends ConnectorIntegrationTestBase {
+
+    private static final String UNKNOWN_EMAIL_ID = "<unknown.email@localhost>";
+    private Map<String, String> esbRequestHeadersMap = new HashMap<>();
+
+    @BeforeClass(alwaysRun = true)
+    public void setEnvironment() throws Exception {
+
+        String connectorName = System.getProperty("connector_name") + "-connector-" +
+                System.getProperty("connector_version") + ".zip";
+        init(connectorName);
+        getApiConfigProperties();
+        esbRequestHeadersMap.put("Accept-Charset", "UTF-8");
+        esbRequestHeadersMap.put("Content-Type", "application/json");
+        esbRequestHeadersMap.put("Accept", "application/json");
+    }
+
+    @Test(enabled = true, groups = {"wso2.ei"}, description = "Test marking multiple emails as read")
+    public void testMarkAsReadBatch() throws Exception {
+
+        GreenMailServer.getInstance().clear();
+        EmailTestUtils.sendSampleEmail(EmailTestUtils.Constants.PROTOCOL_IMAP);
+        EmailTestUtils.sendSampleEmail(EmailTestUtils.Constants.PROTOCOL_IMAP);
+        MimeMessage[] messages = GreenMailServer.getInstance().getReceivedMessages();
+        JsonObject result = invokeBatchOperation("MarkAsReadBatchProxy", messages[0].getMessageID(),
+                messages[1].getMessageID());
+        assertTrue(result.get("success").getAsBoolean(), "Emails are not marked as read.");
+        JsonArray results = result.getAsJsonArray("results");
+        assertEquals(results.size(), 2);
+        assertTrue(results.get(0).getAsJsonObject().get("success").getAsBoolean());
+        assertTrue(results.get(1).getAsJsonObject().get("success").getAsBoolean());
+        for (MimeMessage message : GreenMailServer.getInstance().getReceivedMessages()) {
+            assertTrue(message.getFlags().contains(Flags.Flag.SEEN), "Email is not marked as read.");
+        }
+    }
+
+    @Test(enabled = true, groups = {"wso2.ei"},
+            description = "Test marking multiple emails as read when some of the emails do not exist")
+    public void testMarkAsReadBatchPartialFailure() throws Exception {
+
+        GreenMailServer.getInstance().clear();
+        EmailTestUtils.sendSampleEmail(EmailTestUtils.Constants.PROTOCOL_IMAP);
+        MimeMessage message = GreenMailServer.getInstance().getReceivedMessages()[0];
+        JsonObject result = invokeBatchOperation("MarkAsReadBatchProxy", message.getMessageID(),
+                UNKNOWN_EMAIL_ID);
+        assertFalse(result.get("success").getAsBoolean(), "Missing email is not reported.");
+        JsonArray results = result.getAsJsonArray("results");
+        assertEquals(results.size(), 2);
+        JsonObject foundResult = results.get(0).getAsJsonObject();
+        assertEquals(foundResult.get("emailId").getAsString(), message.getMessageID());
+        assertTrue(foundResult.get("success").getAsBoolean(), "Existing email is reported as failed.");
+        JsonObject missingResult = results.get(1).getAsJsonObject();
+        assertEquals(missingResult.get("emailId").getAsString(), UNKNOWN_EMAIL_ID);
+        assertFalse(missingResult.get("success").getAsBoolean(), "Missing email is reported as successful.");
+        assertTrue(GreenMailServer.getInstance().getReceivedMessages()[0].getFlags().contains(Flags.Flag.SEEN),
+                "Existing email is not marked as read.");
+    }
+
+    @Test(enabled = true, groups = {"wso2.ei"},
+            description = "Test that an email ID matching only a part of a Message-ID is not found")
+    public void testMarkAsReadBatchPartialEmailId() throws Exception {
+
+        GreenMailServer.getInstance().clear();
+        EmailTestUtils.sendSampleEmail(EmailTestUtils.Constants.PROTOCOL_IMAP);
+        MimeMessage message = GreenMailServer.getInstance().getReceivedMessages()[0];
+        // Drops the first character of the Message-ID, which the server search still matches as a substring
+        String partialEmailId = "<" + message.getMessageID().substring(2);
+        JsonObject result = invokeBatchOperation("MarkAsReadBatchProxy", partialEmailId);
+        assertFalse(result.get("success").getAsBoolean(), "Partial email ID is reported as found.");
+        JsonObject partialResult = result.getAsJsonArray("results").get(0).getAsJsonObject();
+        assertEquals(partialResult.get("emailId").getAsString(), partialEmailId);
+        assertFalse(partialResult.get("success").getAsBoolean(), "Partial email ID is reported as successful.");
+        assertFalse(GreenMailServer.getInstance().getReceivedMessages()[0].getFlags().contains(Flags.Flag.SEEN),
+                "Email matching a partial email ID is marked as read.");
+    }
+
+    @Test(enabled = true, groups = {"wso2.ei"}, description = "Test deleting multiple emails")
+    public void testDeleteBatch() throws Exception {
+
+        GreenMailServer.getInstance().clear();
+        EmailTestUtils.sendSampleEmail(EmailTestUtils.Constants.PROTOCOL_IMAP);
+        EmailTestUtils.sendSampleEmail(EmailTestUtils.Constants.PROTOCOL_IMAP);
+        EmailTestUtils.sendSampleEmail(EmailTestUtils.Constants.PROTOCOL_IMAP);
+        MimeMessage[] messages = GreenMailServer.getInstance().getReceivedMessages();
+        String remainingEmailId = messages[2].getMessageID();
+        JsonObject result = invokeBatchOperation("DeleteBatchProxy", messages[0].getMessageID(),
+                messages[1].getMessageID(), UNKNOWN_EMAIL_ID);
+        assertFalse(result.get("success").getAsBoolean(), "Missing email is not reported.");
+        JsonArray results = result.getAsJsonArray("results");
+        assertTrue(results.get(0).getAsJsonObject().get("success").getAsBoolean());
+        assertTrue(results.get(1).getAsJsonObject().get("success").getAsBoolean());
+        assertFalse(results.get(2).getAsJsonObject().get("success").getAsBoolean());
+        MimeMessage[] newMessages = GreenMailServer.getInstance().getReceivedMessages();
+        assertEquals(newMessages.length, 1, "Emails are not deleted.");
+        assertEquals(newMessages[0].getMessageID(), remainingEmailId, "Incorrect email deleted.");
+    }
+
+    private JsonObject invokeBatchOperation(String proxyName, String... emailIds) throws Exception {
+
+        JsonArray emailIdArray = new JsonArray();
+        for (String emailId : emailIds) {
+            emailIdArray.add(emailId);
+        }
+        JsonObject payload = new JsonObject();
+        payload.addProperty("folder", "INBOX");
+        payload.add("emailIds", emailIdArray);
+        HttpResponse response = HttpRequestUtil.doPost(new URL(getProxyServiceURLHttp(proxyName)),
+                payload.toString(), esbRequestHeadersMap);
+        return JsonParser.parseString(response.getData()).getAsJsonObject();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteService() throws Exception {
+
+        GreenMailServer.getInstance().clear();
+    }
+}
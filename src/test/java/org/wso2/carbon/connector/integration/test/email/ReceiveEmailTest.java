@@ -1,6 +1,8 @@
 package org.wso2.carbon.connector.integration.test.email;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.util.AXIOMUtil;
 import org.json.JSONObject;
@@ -8,6 +10,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.automation.test.utils.http.client.HttpRequestUtil;
+import org.wso2.carbon.automation.test.utils.http.client.HttpResponse;
 import org.wso2.carbon.connector.integration.test.email.utils.EmailTestUtils;
 import org.wso2.carbon.connector.integration.test.email.utils.GreenMailServer;
 import org.wso2.carbon.integration.common.admin.client.LogViewerClient;
@@ -22,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
@@ -168,6 +172,76 @@ public class ReceiveEmailTest extends ConnectorIntegrationTestBase {
         assertTrue(Utils.checkForLog(logViewerClient, "<index>0</index>", 10000));
     }
 
+    @Test(enabled = true, groups = {"wso2.ei"}, description = "Test listing emails page by page using the cursor")
+    public void testEmailListWithCursor() throws Exception {
+
+        GreenMailServer.getInstance().clear();
+        for (int i = 0; i < 3; i++) {
+            GreenMailServer.getInstance().sendEmail("subject " + i, EmailTestUtils.Constants.FROM,
+                    EmailTestUtils.Constants.TO, null, null, EmailTestUtils.Constants.HTML_CONTENT,
+                    EmailTestUtils.Constants.PROTOCOL_IMAP);
+        }
+        JsonObject payload = createListPayload();
+        payload.addProperty("limit", "2");
+        JsonObject firstPage = listEmails(payload);
+        JsonArray firstEmails = firstPage.getAsJsonArray("emails");
+        assertEquals(firstEmails.size(), 2, "Incorrect number of emails in the first page.");
+        assertEquals(firstEmails.get(0).getAsJsonObject().get("subject").getAsString(), "subject 0");
+        assertEquals(firstEmails.get(1).getAsJsonObject().get("subject").getAsString(), "subject 1");
+        assertTrue(firstPage.has("nextCursor"), "Cursor is not returned with the first page.");
+
+        payload.addProperty("cursor", firstPage.get("nextCursor").getAsString());
+        JsonObject secondPage = listEmails(payload);
+        JsonArray secondEmails = secondPage.getAsJsonArray("emails");
+        assertEquals(secondEmails.size(), 1, "Incorrect number of emails in the second page.");
+        assertEquals(secondEmails.get(0).getAsJsonObject().get("subject").getAsString(), "subject 2");
+        assertFalse(secondPage.has("nextCursor"), "Cursor is returned with the last page.");
+    }
+
+    @Test(enabled = true, groups = {"wso2.ei"}, description = "Test listing only the headers of emails using imap")
+    public void testEmailListHeadersOnly() throws Exception {
+
+        GreenMailServer.getInstance().clear();
+        JsonObject email = new JsonObject();
+        email.addProperty("from", EmailTestUtils.Constants.FROM);
+        email.addProperty("to", EmailTestUtils.Constants.TO);
+        email.addProperty("subject", EmailTestUtils.Constants.SUBJECT);
+        email.addProperty("content", "Hello WSO2.....!");
+        email.addProperty("attachments", pathToResourcesDirectory + "contacts.csv");
+        HttpRequestUtil.doPost(new URL(getProxyServiceURLHttp("SendEmailProxy")), email.toString(),
+                esbRequestHeadersMap);
+
+        JsonObject payload = createListPayload();
+        payload.addProperty("headersOnly", "true");
+        JsonArray emails = listEmails(payload).getAsJsonArray("emails");
+        assertEquals(emails.size(), 1, "Email not retrieved.");
+        JsonObject listedEmail = emails.get(0).getAsJsonObject();
+        assertEquals(listedEmail.get("subject").getAsString(), EmailTestUtils.Constants.SUBJECT);
+        assertEquals(listedEmail.get("from").getAsString(), EmailTestUtils.Constants.FROM);
+        assertEquals(listedEmail.get("to").getAsString(), EmailTestUtils.Constants.TO);
+        JsonArray attachments = listedEmail.getAsJsonArray("attachments");
+        assertNotNull(attachments, "Attachment information is not retrieved.");
+        assertEquals(attachments.get(0).getAsJsonObject().get("name").getAsString(), "contacts.csv");
+    }
+
+    private JsonObject createListPayload() {
+
+        JsonObject payload = new JsonObject();
+        payload.addProperty("seen", "false");
+        payload.addProperty("answered", "false");
+        payload.addProperty("deleted", "false");
+        payload.addProperty("recent", "true");
+        payload.addProperty("folder", "INBOX");
+        return payload;
+    }
+
+    private JsonObject listEmails(JsonObject payload) throws Exception {
+
+        HttpResponse response = HttpRequestUtil.doPost(new URL(getProxyServiceURLHttp("ListEmailsProxy")),
+                payload.toString(), esbRequestHeadersMap);
+        return JsonParser.parseString(response.getData()).getAsJsonObject();
+    }
+
     @AfterClass(alwaysRun = true)
     public void deleteService() throws Exception {
 
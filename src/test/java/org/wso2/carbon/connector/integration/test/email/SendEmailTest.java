@@ -1,6 +1,8 @@
 package org.wso2.carbon.connector.integration.test.email;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.json.JSONObject;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -20,6 +22,8 @@ import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 /**
  * Test class for send email operation
@@ -105,6 +109,48 @@ public class SendEmailTest extends ConnectorIntegrationTestBase {
         }
     }
 
+    @Test(enabled = true, groups = {"wso2.ei"}, description = "Test sending multiple emails in bulk")
+    public void testEmailSendBulk() throws Exception {
+
+        GreenMailServer.getInstance().clear();
+        JsonArray messages = new JsonArray();
+        for (int i = 0; i < 2; i++) {
+            JsonObject message = new JsonObject();
+            message.addProperty("to", EmailTestUtils.Constants.TO);
+            message.addProperty("subject", "subject " + i);
+            message.addProperty("content", "Hello WSO2.....!");
+            messages.add(message);
+        }
+        // A message without recipients fails without affecting the other messages
+        JsonObject invalidMessage = new JsonObject();
+        invalidMessage.addProperty("subject", "no recipients");
+        invalidMessage.addProperty("content", "Hello WSO2.....!");
+        messages.add(invalidMessage);
+        JsonObject payload = new JsonObject();
+        payload.addProperty("from", EmailTestUtils.Constants.FROM);
+        payload.add("messages", messages);
+        HttpResponse response = HttpRequestUtil.doPost(new URL(getProxyServiceURLHttp("SendBulkEmailProxy")),
+                payload.toString(), esbRequestHeadersMap);
+
+        JsonObject result = JsonParser.parseString(response.getData()).getAsJsonObject();
+        assertFalse(result.get("success").getAsBoolean(), "Failed email is not reported.");
+        JsonArray results = result.getAsJsonArray("results");
+        assertEquals(results.size(), 3);
+        assertTrue(results.get(0).getAsJsonObject().get("success").getAsBoolean(), "Email is not sent.");
+        assertTrue(results.get(1).getAsJsonObject().get("success").getAsBoolean(), "Email is not sent.");
+        JsonObject failedResult = results.get(2).getAsJsonObject();
+        assertEquals(failedResult.get("index").getAsInt(), 2);
+        assertFalse(failedResult.get("success").getAsBoolean(), "Email without recipients is sent.");
+        assertTrue(failedResult.has("error"), "Error of the failed email is not reported.");
+
+        MimeMessage[] receivedMessages = GreenMailServer.getInstance().getReceivedMessages();
+        assertEquals(receivedMessages.length, 2, "Emails not received by server.");
+        assertEquals(receivedMessages[0].getSubject(), "subject 0", "Incorrect email subject.");
+        assertEquals(receivedMessages[1].getSubject(), "subject 1", "Incorrect email subject.");
+        assertEquals(receivedMessages[0].getFrom()[0].toString(), EmailTestUtils.Constants.FROM,
+                "Incorrect email sender.");
+    }
+
     @AfterClass(alwaysRun = true)
     public void deleteService() throws Exception {
 
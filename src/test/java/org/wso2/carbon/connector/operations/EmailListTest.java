@@ -0,0 +1,79 @@
+package org.wso2.carbon.connector.operations;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.connector.pojo.EmailMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Test class for merging the emails of multiple folders
+ */
+public class EmailListTest {
+
+    @Test(description = "Test merging the emails of multiple folders by received date")
+    public void testMergeByReceivedDate() {
+
+        List<List<EmailMessage>> folderMessages = Arrays.asList(
+                emails("a1", 1, "a4", 4, "a6", 6),
+                emails("b2", 2, "b3", 3),
+                Collections.emptyList(),
+                emails("c5", 5));
+        assertEquals(subjects(EmailList.mergeByReceivedDate(folderMessages, 0, -1)),
+                Arrays.asList("a1", "b2", "b3", "a4", "c5", "a6"));
+    }
+
+    @Test(description = "Test applying the offset and the limit to the merged emails")
+    public void testMergeWithOffsetAndLimit() {
+
+        List<List<EmailMessage>> folderMessages = Arrays.asList(
+                emails("a1", 1, "a4", 4, "a6", 6),
+                emails("b2", 2, "b3", 3, "b5", 5));
+        assertEquals(subjects(EmailList.mergeByReceivedDate(folderMessages, 2, 3)), Arrays.asList("b3", "a4", "b5"));
+        assertEquals(subjects(EmailList.mergeByReceivedDate(folderMessages, 5, 3)), Collections.singletonList("a6"));
+        assertEquals(EmailList.mergeByReceivedDate(folderMessages, 6, 3).size(), 0);
+    }
+
+    @Test(description = "Test ordering the emails of the same date and the emails without a date")
+    public void testMergeTiesAndMissingDates() {
+
+        EmailMessage undated = new EmailMessage();
+        undated.setSubject("b0");
+        List<EmailMessage> secondFolder = new ArrayList<>();
+        secondFolder.add(undated);
+        secondFolder.addAll(emails("b1", 1));
+        List<List<EmailMessage>> folderMessages = Arrays.asList(emails("a1", 1, "a2", 2), secondFolder);
+        // Emails without a date come first, and emails of the same date are ordered by folder
+        assertEquals(subjects(EmailList.mergeByReceivedDate(folderMessages, 0, -1)),
+                Arrays.asList("b0", "a1", "b1", "a2"));
+    }
+
+    /**
+     * Creates emails from pairs of subjects and received times
+     */
+    private static List<EmailMessage> emails(Object... subjectsAndTimes) {
+
+        List<EmailMessage> emails = new ArrayList<>();
+        for (int i = 0; i < subjectsAndTimes.length; i += 2) {
+            EmailMessage email = new EmailMessage();
+            email.setSubject((String) subjectsAndTimes[i]);
+            email.setReceivedDate(new Date((Integer) subjectsAndTimes[i + 1] * 1000L));
+            emails.add(email);
+        }
+        return emails;
+    }
+
+    private static List<String> subjects(List<EmailMessage> emails) {
+
+        List<String> subjects = new ArrayList<>();
+        for (EmailMessage email : emails) {
+            subjects.add(email.getSubject());
+        }
+        return subjects;
+    }
+}
@@ -0,0 +1,57 @@
+package org.wso2.carbon.connector.pojo;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+/**
+ * Test class for the cursor of the list operation
+ */
+public class PageCursorTest {
+
+    @Test(description = "Test decoding an encoded cursor")
+    public void testEncodeAndDecode() throws Exception {
+
+        PageCursor cursor = PageCursor.decode(new PageCursor(1234567890L, 42L).encode());
+        assertEquals(cursor.getUidValidity(), 1234567890L);
+        assertEquals(cursor.getLastUid(), 42L);
+    }
+
+    @Test(description = "Test that the encoded cursor can be passed as a URL parameter")
+    public void testEncodedCursorIsUrlSafe() {
+
+        String cursor = new PageCursor(Long.MAX_VALUE, Long.MAX_VALUE).encode();
+        assertFalse(cursor.matches(".*[+/=].*"), "Cursor contains characters which are not URL safe.");
+    }
+
+    @Test(description = "Test decoding a cursor which is not Base64 encoded",
+            expectedExceptions = InvalidConfigurationException.class)
+    public void testDecodeInvalidEncoding() throws Exception {
+
+        PageCursor.decode("not a cursor!");
+    }
+
+    @Test(description = "Test decoding a cursor with a missing UID",
+            expectedExceptions = InvalidConfigurationException.class)
+    public void testDecodeMissingUid() throws Exception {
+
+        PageCursor.decode(encode("1234567890"));
+    }
+
+    @Test(description = "Test decoding a cursor with a UID which is not a number",
+            expectedExceptions = InvalidConfigurationException.class)
+    public void testDecodeInvalidUid() throws Exception {
+
+        PageCursor.decode(encode("1234567890:abc"));
+    }
+
+    private static String encode(String cursor) {
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.US_ASCII));
+    }
+}
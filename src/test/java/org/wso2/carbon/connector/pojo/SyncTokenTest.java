@@ -0,0 +1,46 @@
+package org.wso2.carbon.connector.pojo;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.connector.exception.InvalidConfigurationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Test class for the token of the sync operation
+ */
+public class SyncTokenTest {
+
+    @Test(description = "Test decoding an encoded sync token")
+    public void testEncodeAndDecode() throws Exception {
+
+        SyncToken token = SyncToken.decode(new SyncToken(1234567890L, 98765432109L, 42L).encode());
+        assertEquals(token.getUidValidity(), 1234567890L);
+        assertEquals(token.getHighestModSeq(), 98765432109L);
+        assertEquals(token.getLastUid(), 42L);
+    }
+
+    @Test(description = "Test decoding a sync token which is not Base64 encoded",
+            expectedExceptions = InvalidConfigurationException.class)
+    public void testDecodeInvalidEncoding() throws Exception {
+
+        SyncToken.decode("not a token!");
+    }
+
+    @Test(description = "Test decoding a page cursor as a sync token",
+            expectedExceptions = InvalidConfigurationException.class)
+    public void testDecodePageCursor() throws Exception {
+
+        SyncToken.decode(new PageCursor(1234567890L, 42L).encode());
+    }
+
+    @Test(description = "Test decoding a sync token with a HIGHESTMODSEQ which is not a number",
+            expectedExceptions = InvalidConfigurationException.class)
+    public void testDecodeInvalidModSeq() throws Exception {
+
+        SyncToken.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "1234567890:abc:42".getBytes(StandardCharsets.US_ASCII)));
+    }
+}
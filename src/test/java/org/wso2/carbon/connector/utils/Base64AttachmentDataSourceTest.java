@@ -0,0 +1,88 @@
+package org.wso2.carbon.connector.utils;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test class for the data source of attachments given as Base64 encoded content
+ */
+public class Base64AttachmentDataSourceTest {
+
+    private static final String CONTENT = "Hello WSO2.....!";
+
+    @Test(description = "Test detecting Base64 encoded content")
+    public void testIsBase64() {
+
+        assertTrue(Base64AttachmentDataSource.isBase64(encode("abc")));
+        assertTrue(Base64AttachmentDataSource.isBase64(encode("ab")), "Content with two padding characters.");
+        assertTrue(Base64AttachmentDataSource.isBase64(encode("a")), "Content with one padding character.");
+        assertTrue(Base64AttachmentDataSource.isBase64("+/+/"));
+    }
+
+    @Test(description = "Test detecting content which is not Base64 encoded")
+    public void testIsNotBase64() {
+
+        assertFalse(Base64AttachmentDataSource.isBase64(""), "Empty content.");
+        assertFalse(Base64AttachmentDataSource.isBase64("abc"), "Content of which the length is not a multiple of 4.");
+        assertFalse(Base64AttachmentDataSource.isBase64("ab-_"), "URL safe alphabet.");
+        assertFalse(Base64AttachmentDataSource.isBase64("a=bc"), "Padding in the middle of the content.");
+        assertFalse(Base64AttachmentDataSource.isBase64("YWJj\r\nYWJj"), "Content with line separators.");
+        assertFalse(Base64AttachmentDataSource.isBase64("/tmp/file.txt"), "File path.");
+    }
+
+    @Test(description = "Test decoding the content while it is read")
+    public void testDecode() throws Exception {
+
+        Base64AttachmentDataSource dataSource = new Base64AttachmentDataSource("hello.txt", encode(CONTENT),
+                "text/plain");
+        assertEquals(read(dataSource.getInputStream()), CONTENT);
+        assertEquals(dataSource.getName(), "hello.txt");
+        assertEquals(dataSource.getContentType(), "text/plain");
+    }
+
+    @Test(description = "Test reading the content more than once")
+    public void testDecodeTwice() throws Exception {
+
+        Base64AttachmentDataSource dataSource = new Base64AttachmentDataSource("hello.txt", encode(CONTENT),
+                "text/plain");
+        assertEquals(read(dataSource.getInputStream()), CONTENT);
+        assertEquals(read(dataSource.getInputStream()), CONTENT);
+    }
+
+    @Test(description = "Test decoding MIME encoded content with line separators")
+    public void testDecodeMimeContent() throws Exception {
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append(CONTENT);
+        }
+        String encoded = Base64.getMimeEncoder().encodeToString(content.toString().getBytes(StandardCharsets.UTF_8));
+        Base64AttachmentDataSource dataSource = new Base64AttachmentDataSource("hello.txt", encoded, "text/plain");
+        assertEquals(read(dataSource.getInputStream()), content.toString());
+    }
+
+    private static String encode(String content) {
+
+        return Base64.getEncoder().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
+        }
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+}